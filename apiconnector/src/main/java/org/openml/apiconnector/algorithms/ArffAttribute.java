@@ -0,0 +1,241 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An attribute declared in the header of an ARFF file.
+ */
+public class ArffAttribute {
+
+	public enum Type { NUMERIC, NOMINAL, STRING, DATE }
+
+	private final int index;
+	private final String name;
+	private final Type type;
+	private final String[] values;
+	private final String dateFormat;
+	private Map<String, Integer> valueIndex = null;
+
+	public ArffAttribute( int index, String name, Type type, String[] values, String dateFormat ) {
+		this.index = index;
+		this.name = name;
+		this.type = type;
+		this.values = values;
+		this.dateFormat = dateFormat;
+	}
+
+	/**
+	 * @return The (zero based) position of the attribute in the header
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return true if values of this attribute are stored as double; false if
+	 * they are stored as integer codes (nominal, string and date attributes)
+	 */
+	public boolean isNumeric() {
+		return type == Type.NUMERIC;
+	}
+
+	/**
+	 * @return The declared values of a nominal attribute; null otherwise
+	 */
+	public String[] getValues() {
+		return values;
+	}
+
+	/**
+	 * @return The date format of a date attribute (or null if not specified)
+	 */
+	public String getDateFormat() {
+		return dateFormat;
+	}
+
+	/**
+	 * @param value - A value of this nominal attribute
+	 * @return The code (index) of the value, or -1 if it is not declared
+	 */
+	public synchronized int indexOfValue( String value ) {
+		if( values == null ) {
+			return -1;
+		}
+		if( valueIndex == null ) {
+			valueIndex = new HashMap<String, Integer>();
+			for( int i = 0; i < values.length; ++i ) {
+				valueIndex.put( values[i], i );
+			}
+		}
+		Integer code = valueIndex.get( value );
+		return code == null ? -1 : code;
+	}
+
+	/**
+	 * Parses an attribute declaration, e.g., "@attribute 'class' {yes,no}".
+	 *
+	 * @param line - Line declaring an attribute from an Arff File.
+	 * @param index - The position of the attribute in the header
+	 * @return The attribute
+	 * @throws IOException - When the declaration is not valid
+	 */
+	public static ArffAttribute parse( String line, int index ) throws IOException {
+		String rest = line.trim();
+		if( rest.length() < 10 || rest.substring( 0, 10 ).equalsIgnoreCase( "@attribute" ) == false ) {
+			throw new IOException( "Not a valid attribute: " + line );
+		}
+		rest = rest.substring( 10 ).trim();
+		if( rest.length() == 0 ) {
+			throw new IOException( "Not a valid attribute: " + line );
+		}
+
+		// name, possibly quoted
+		String name;
+		char first = rest.charAt( 0 );
+		if( first == '\'' || first == '"' ) {
+			int end = closingQuote( rest, 0 );
+			if( end < 0 ) {
+				throw new IOException( "Unterminated attribute name: " + line );
+			}
+			name = unescape( rest.substring( 1, end ) );
+			rest = rest.substring( end + 1 ).trim();
+		} else {
+			int end = 0;
+			while( end < rest.length() && Character.isWhitespace( rest.charAt( end ) ) == false && rest.charAt( end ) != '{' ) {
+				end += 1;
+			}
+			name = rest.substring( 0, end );
+			rest = rest.substring( end ).trim();
+		}
+
+		if( rest.startsWith( "{" ) ) {
+			int end = rest.lastIndexOf( '}' );
+			if( end < 0 ) {
+				throw new IOException( "Not a legal nominal attribute: " + line );
+			}
+			return new ArffAttribute( index, name, Type.NOMINAL, splitValues( rest.substring( 1, end ) ), null );
+		}
+
+		String[] words = rest.split( "\\s+", 2 );
+		String type = words[0].toLowerCase();
+		if( type.equals( "numeric" ) || type.equals( "real" ) || type.equals( "integer" ) ) {
+			return new ArffAttribute( index, name, Type.NUMERIC, null, null );
+		} else if( type.equals( "string" ) ) {
+			return new ArffAttribute( index, name, Type.STRING, null, null );
+		} else if( type.equals( "date" ) ) {
+			String format = words.length > 1 ? stripQuotes( words[1].trim() ) : null;
+			return new ArffAttribute( index, name, Type.DATE, null, format );
+		} else {
+			throw new IOException( "Attribute type not supported: " + line );
+		}
+	}
+
+	/**
+	 * Splits the content of a nominal declaration on comma's, respecting quotes.
+	 */
+	static String[] splitValues( String declaration ) throws IOException {
+		List<String> values = new ArrayList<String>();
+		int i = 0;
+		int n = declaration.length();
+		while( i < n ) {
+			while( i < n && Character.isWhitespace( declaration.charAt( i ) ) ) {
+				i += 1;
+			}
+			if( i >= n ) {
+				break;
+			}
+			char c = declaration.charAt( i );
+			if( c == '\'' || c == '"' ) {
+				int end = closingQuote( declaration, i );
+				if( end < 0 ) {
+					throw new IOException( "Unterminated nominal value: " + declaration );
+				}
+				values.add( unescape( declaration.substring( i + 1, end ) ) );
+				i = declaration.indexOf( ',', end );
+				i = i < 0 ? n : i + 1;
+			} else {
+				int end = declaration.indexOf( ',', i );
+				if( end < 0 ) {
+					end = n;
+				}
+				values.add( declaration.substring( i, end ).trim() );
+				i = end + 1;
+			}
+		}
+		return values.toArray( new String[values.size()] );
+	}
+
+	private static int closingQuote( String s, int open ) {
+		char quote = s.charAt( open );
+		for( int i = open + 1; i < s.length(); ++i ) {
+			if( s.charAt( i ) == '\\' ) {
+				i += 1;
+			} else if( s.charAt( i ) == quote ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String stripQuotes( String s ) {
+		if( s.length() >= 2 && ( s.charAt( 0 ) == '\'' || s.charAt( 0 ) == '"' ) && s.charAt( s.length() - 1 ) == s.charAt( 0 ) ) {
+			return s.substring( 1, s.length() - 1 );
+		}
+		return s;
+	}
+
+	static String unescape( String s ) {
+		if( s.indexOf( '\\' ) < 0 ) {
+			return s;
+		}
+		StringBuilder sb = new StringBuilder( s.length() );
+		for( int i = 0; i < s.length(); ++i ) {
+			char c = s.charAt( i );
+			if( c == '\\' && i + 1 < s.length() ) {
+				i += 1;
+				c = s.charAt( i );
+				if( c == 'n' ) c = '\n';
+				else if( c == 't' ) c = '\t';
+				else if( c == 'r' ) c = '\r';
+			}
+			sb.append( c );
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + type + ")";
+	}
+}
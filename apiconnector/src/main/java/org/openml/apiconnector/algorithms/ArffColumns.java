@@ -0,0 +1,162 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive columns into which the rows of an ARFF data section
+ * are parsed. Turned into an ArffDataset once parsing is done.
+ */
+class ArffColumns {
+
+	private final ArffHeader header;
+	private final double[][] numeric;
+	private final int[][] codes;
+	private final ByteDictionary[] dictionaries;
+	private int capacity;
+	private int rows = 0;
+
+	ArffColumns( ArffHeader header, int initialCapacity ) {
+		this.header = header;
+		this.capacity = Math.max( 16, initialCapacity );
+		int n = header.numAttributes();
+		numeric = new double[n][];
+		codes = new int[n][];
+		dictionaries = new ByteDictionary[n];
+		for( int i = 0; i < n; ++i ) {
+			ArffAttribute attribute = header.getAttribute( i );
+			if( attribute.isNumeric() ) {
+				numeric[i] = new double[capacity];
+			} else {
+				codes[i] = new int[capacity];
+				dictionaries[i] = attribute.getType() == ArffAttribute.Type.NOMINAL ?
+					new ByteDictionary( attribute.getValues() ) : new ByteDictionary();
+			}
+		}
+	}
+
+	ArffHeader getHeader() {
+		return header;
+	}
+
+	int rows() {
+		return rows;
+	}
+
+	/**
+	 * @return The dictionary of a nominal, string or date attribute
+	 */
+	ByteDictionary dictionary( int attribute ) {
+		return dictionaries[attribute];
+	}
+
+	boolean isNumeric( int attribute ) {
+		return numeric[attribute] != null;
+	}
+
+	/**
+	 * Makes room for one more row. Values of the row are set with the setters,
+	 * after which the row is completed with endRow.
+	 */
+	void startRow() {
+		ensureCapacity( rows + 1 );
+	}
+
+	private void ensureCapacity( int required ) {
+		if( required > capacity ) {
+			capacity = Math.max( required, capacity * 2 );
+			for( int i = 0; i < numeric.length; ++i ) {
+				if( numeric[i] != null ) {
+					numeric[i] = Arrays.copyOf( numeric[i], capacity );
+				} else {
+					codes[i] = Arrays.copyOf( codes[i], capacity );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Appends the rows of columns that were parsed from a later part of the
+	 * same file. Codes of string and date attributes are translated to this
+	 * dictionary; nominal codes are shared, as they follow the header.
+	 */
+	void append( ArffColumns other ) {
+		ensureCapacity( rows + other.rows );
+		for( int i = 0; i < numeric.length; ++i ) {
+			if( numeric[i] != null ) {
+				System.arraycopy( other.numeric[i], 0, numeric[i], rows, other.rows );
+			} else if( header.getAttribute( i ).getType() == ArffAttribute.Type.NOMINAL ) {
+				System.arraycopy( other.codes[i], 0, codes[i], rows, other.rows );
+			} else {
+				ByteDictionary source = other.dictionaries[i];
+				int[] translation = new int[source.size()];
+				for( int code = 0; code < translation.length; ++code ) {
+					translation[code] = dictionaries[i].add( source.get( code ) );
+				}
+				for( int row = 0; row < other.rows; ++row ) {
+					int code = other.codes[i][row];
+					codes[i][rows + row] = code == ArffDataset.MISSING_CODE ? code : translation[code];
+				}
+			}
+		}
+		rows += other.rows;
+	}
+
+	void setNumeric( int attribute, double value ) {
+		numeric[attribute][rows] = value;
+	}
+
+	void setCode( int attribute, int code ) {
+		codes[attribute][rows] = code;
+	}
+
+	void setMissing( int attribute ) {
+		if( numeric[attribute] != null ) {
+			numeric[attribute][rows] = Double.NaN;
+		} else {
+			codes[attribute][rows] = ArffDataset.MISSING_CODE;
+		}
+	}
+
+	void endRow() {
+		rows += 1;
+	}
+
+	/**
+	 * @return The parsed rows as data set, with arrays trimmed to the number of rows
+	 */
+	ArffDataset toDataset() {
+		int n = header.numAttributes();
+		double[][] numericResult = new double[n][];
+		int[][] codesResult = new int[n][];
+		String[][] dictionaryResult = new String[n][];
+		for( int i = 0; i < n; ++i ) {
+			if( numeric[i] != null ) {
+				numericResult[i] = rows == capacity ? numeric[i] : Arrays.copyOf( numeric[i], rows );
+			} else {
+				codesResult[i] = rows == capacity ? codes[i] : Arrays.copyOf( codes[i], rows );
+				dictionaryResult[i] = header.getAttribute( i ).getType() == ArffAttribute.Type.NOMINAL ?
+					header.getAttribute( i ).getValues() : dictionaries[i].toArray();
+			}
+		}
+		return new ArffDataset( header, rows, numericResult, codesResult, dictionaryResult );
+	}
+}
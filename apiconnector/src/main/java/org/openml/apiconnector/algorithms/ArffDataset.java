@@ -0,0 +1,131 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+/**
+ * A dense ARFF data set, stored column wise in primitive arrays. Numeric
+ * attributes are stored as double[] (NaN for missing values); nominal, string
+ * and date attributes are stored as int[] codes into a dictionary of values
+ * (-1 for missing values).
+ */
+public class ArffDataset {
+
+	public static final int MISSING_CODE = -1;
+
+	private final ArffHeader header;
+	private final int numInstances;
+	private final double[][] numeric;
+	private final int[][] codes;
+	private final String[][] dictionaries;
+
+	/**
+	 * @param header - The header of the data set
+	 * @param numInstances - The number of rows
+	 * @param numeric - Per attribute the values, or null for non-numeric attributes
+	 * @param codes - Per attribute the value codes, or null for numeric attributes
+	 * @param dictionaries - Per attribute the values the codes refer to, or null for numeric attributes
+	 */
+	public ArffDataset( ArffHeader header, int numInstances, double[][] numeric, int[][] codes, String[][] dictionaries ) {
+		this.header = header;
+		this.numInstances = numInstances;
+		this.numeric = numeric;
+		this.codes = codes;
+		this.dictionaries = dictionaries;
+	}
+
+	public ArffHeader getHeader() {
+		return header;
+	}
+
+	public int numInstances() {
+		return numInstances;
+	}
+
+	public int numAttributes() {
+		return header.numAttributes();
+	}
+
+	/**
+	 * @param attribute - Index of a numeric attribute
+	 * @return The values of the attribute, NaN for missing values. Not a copy.
+	 */
+	public double[] getNumericColumn( int attribute ) {
+		if( numeric[attribute] == null ) {
+			throw new IllegalArgumentException( "Attribute " + header.getAttribute( attribute ) + " is not numeric. " );
+		}
+		return numeric[attribute];
+	}
+
+	/**
+	 * @param attribute - Index of a nominal, string or date attribute
+	 * @return The codes of the values of the attribute, -1 for missing values. Not a copy.
+	 */
+	public int[] getCodes( int attribute ) {
+		if( codes[attribute] == null ) {
+			throw new IllegalArgumentException( "Attribute " + header.getAttribute( attribute ) + " is numeric. " );
+		}
+		return codes[attribute];
+	}
+
+	/**
+	 * @param attribute - Index of a nominal, string or date attribute
+	 * @return The values that the codes refer to. For nominal attributes these are the declared values.
+	 */
+	public String[] getDictionary( int attribute ) {
+		return dictionaries[attribute];
+	}
+
+	/**
+	 * @return The value of numeric attributes, the code of other attributes,
+	 * or NaN if the value is missing.
+	 */
+	public double value( int row, int attribute ) {
+		if( numeric[attribute] != null ) {
+			return numeric[attribute][row];
+		}
+		int code = codes[attribute][row];
+		return code == MISSING_CODE ? Double.NaN : code;
+	}
+
+	public boolean isMissing( int row, int attribute ) {
+		if( numeric[attribute] != null ) {
+			return Double.isNaN( numeric[attribute][row] );
+		}
+		return codes[attribute][row] == MISSING_CODE;
+	}
+
+	/**
+	 * @return The value as it was in the ARFF file, or null if it is missing.
+	 */
+	public String stringValue( int row, int attribute ) {
+		if( isMissing( row, attribute ) ) {
+			return null;
+		}
+		if( numeric[attribute] != null ) {
+			return MathHelper.defaultDecimalFormat.format( numeric[attribute][row] );
+		}
+		return dictionaries[attribute][codes[attribute][row]];
+	}
+
+	@Override
+	public String toString() {
+		return "[" + header.getRelation() + ", " + numInstances + " instances, " + numAttributes() + " attributes]";
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The header of an ARFF file: the relation name, the declared attributes and
+ * the byte offset at which the data section starts.
+ */
+public class ArffHeader {
+
+	private final String relation;
+	private final ArffAttribute[] attributes;
+	private final long dataOffset;
+	private final Map<String, ArffAttribute> byName;
+
+	/**
+	 * @param relation - The name of the relation
+	 * @param attributes - The attributes, in order of declaration
+	 * @param dataOffset - Byte offset of the first line after the @DATA declaration
+	 */
+	public ArffHeader( String relation, ArffAttribute[] attributes, long dataOffset ) {
+		this.relation = relation;
+		this.attributes = attributes;
+		this.dataOffset = dataOffset;
+		this.byName = new HashMap<String, ArffAttribute>();
+		for( ArffAttribute attribute : attributes ) {
+			byName.put( attribute.getName(), attribute );
+		}
+	}
+
+	public String getRelation() {
+		return relation;
+	}
+
+	public ArffAttribute[] getAttributes() {
+		return attributes;
+	}
+
+	public int numAttributes() {
+		return attributes.length;
+	}
+
+	public ArffAttribute getAttribute( int index ) {
+		return attributes[index];
+	}
+
+	/**
+	 * @param name - The name of an attribute
+	 * @return The attribute, or null if it is not declared
+	 */
+	public ArffAttribute getAttribute( String name ) {
+		return byName.get( name );
+	}
+
+	/**
+	 * @param name - The name of an attribute
+	 * @return The index of the attribute, or -1 if it is not declared
+	 */
+	public int indexOf( String name ) {
+		ArffAttribute attribute = byName.get( name );
+		return attribute == null ? -1 : attribute.getIndex();
+	}
+
+	/**
+	 * @return The byte offset of the first line after the @DATA declaration
+	 */
+	public long getDataOffset() {
+		return dataOffset;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + relation + ", " + attributes.length + " attributes, data at byte " + dataOffset + "]";
+	}
+}
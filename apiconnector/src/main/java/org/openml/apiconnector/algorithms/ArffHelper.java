@@ -22,13 +22,14 @@ package org.openml.apiconnector.algorithms;
 import java.io.File;
 import java.io.IOException;
 
-import org.openml.apiconnector.io.OpenmlConnector;
+import org.openml.apiconnector.io.FileDownloader;
 import org.openml.apiconnector.settings.Settings;
 
 public class ArffHelper {
 	
 	/**
 	 * Looks whether a specified file exists in the cache directory. Downloads it if it does not exists. 
+	 * Downloads are resumed when interrupted, and only stored when the hash matches. 
 	 * 
 	 * @param type - Either splits or dataset
 	 * @param identifier - The name of the arff file to look up (or store)
@@ -43,7 +44,8 @@ public class ArffHelper {
 		File dataset;
 		
 		if( file.exists() ) {
-			String clientMd5 = Hashing.md5(file);
+			// the sidecar index avoids rehashing files that did not change since they were verified
+			String clientMd5 = serverMd5 == null ? null : ChecksumIndex.digest(file);
 			if( serverMd5 == null || clientMd5.equals( serverMd5.trim() ) ) {
 				Conversion.log( "INFO", "ARFF Cache", "Loaded " + type + " " + identifier + " from cache. " );
 				return file;
@@ -58,10 +60,14 @@ public class ArffHelper {
 		
 		if( Settings.CACHE_ALLOWED ) {
 			directory.mkdirs();
-			dataset = OpenmlConnector.getFileFromUrl( url, file.getAbsolutePath() );
+			String md5 = FileDownloader.download( url, file, serverMd5 );
+			ChecksumIndex.record( file, md5 );
+			dataset = file;
 			Conversion.log( "INFO", "ARFF Cache", "Stored " + type + " " + identifier + " to cache. " );
 		} else {
-			dataset = Conversion.stringToTempFile( OpenmlConnector.getStringFromUrl( url ), identifier + "", "arff" );
+			dataset = File.createTempFile( identifier + "", ".arff" );
+			dataset.deleteOnExit();
+			FileDownloader.download( url, dataset, serverMd5 );
 		}
 		return dataset;
 	}
@@ -0,0 +1,651 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads ARFF files into primitive columns. The header is parsed once; the
+ * data section is memory mapped and tokenized directly on its bytes, so that
+ * no String is created per line or per (numeric or nominal) value.
+ */
+public class ArffReader {
+
+	/**
+	 * Maximal number of bytes that is mapped at once. Files that are larger are
+	 * mapped in consecutive windows, each ending at a line end.
+	 */
+	static final int WINDOW_SIZE = 1 << 30;
+
+	/**
+	 * Parts of the data section smaller than this are not split any further.
+	 */
+	static final int MIN_CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * Number of chunks per thread, so that threads that finish early can take over work.
+	 */
+	static final int CHUNKS_PER_THREAD = 4;
+
+	/**
+	 * Minimal number of bytes a value takes in a dense row (a digit and a
+	 * separator), used to bound the number of rows in a chunk.
+	 */
+	static final int MIN_VALUE_SIZE = 2;
+
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * Reads only the header of an ARFF file.
+	 *
+	 * @param arff - The ARFF file
+	 * @return The header, including the byte offset of the data section
+	 * @throws IOException - When the file can not be read or the header is not valid
+	 */
+	public static ArffHeader readHeader( File arff ) throws IOException {
+		return readHeader( arff, false );
+	}
+
+	/**
+	 * Reads only the header of an ARFF file, optionally leaving out attributes
+	 * that can not be parsed (e.g., relational attributes and unknown types).
+	 * A header without those attributes is only fit for lookups by name: its
+	 * attribute indices no longer match the columns of the data section.
+	 *
+	 * @param arff - The ARFF file
+	 * @param skipUnsupported - Whether unsupported attributes are left out, instead of failing
+	 * @return The header, including the byte offset of the data section
+	 * @throws IOException - When the file can not be read or the header is not valid
+	 */
+	public static ArffHeader readHeader( File arff, boolean skipUnsupported ) throws IOException {
+		InputStream in = new BufferedInputStream( new FileInputStream( arff ) );
+		try {
+			String relation = null;
+			List<ArffAttribute> attributes = new ArrayList<ArffAttribute>();
+			ByteArrayOutputStream line = new ByteArrayOutputStream( 256 );
+			long offset = 0;
+			int nesting = 0; // depth inside skipped relational attributes
+			boolean eof = false;
+			while( eof == false ) {
+				line.reset();
+				int b;
+				while( ( b = in.read() ) != -1 ) {
+					offset += 1;
+					if( b == '\n' ) {
+						break;
+					}
+					line.write( b );
+				}
+				eof = b == -1;
+
+				String text = new String( line.toByteArray(), ByteDictionary.UTF8 ).trim();
+				if( text.length() > 0 && text.charAt( 0 ) == '\uFEFF' ) {
+					text = text.substring( 1 ).trim();
+				}
+				if( text.length() == 0 || text.charAt( 0 ) == '%' ) {
+					continue;
+				}
+				String upper = text.toUpperCase();
+				if( upper.startsWith( "@RELATION" ) ) {
+					relation = stripQuotes( text.substring( 9 ).trim() );
+				} else if( upper.startsWith( "@ATTRIBUTE" ) ) {
+					if( skipUnsupported && upper.matches( ".*\\sRELATIONAL" ) ) {
+						nesting += 1;
+					} else if( nesting == 0 ) {
+						try {
+							attributes.add( ArffAttribute.parse( text, attributes.size() ) );
+						} catch( IOException e ) {
+							if( skipUnsupported == false ) {
+								throw e;
+							}
+						}
+					}
+				} else if( upper.startsWith( "@DATA" ) ) {
+					return new ArffHeader( relation, attributes.toArray( new ArffAttribute[attributes.size()] ), offset );
+				} else if( upper.startsWith( "@END" ) ) {
+					if( skipUnsupported == false || nesting == 0 ) {
+						throw new IOException( "Relational attributes are not supported: " + arff.getName() );
+					}
+					nesting -= 1;
+				}
+			}
+			throw new IOException( "No data declaration found in " + arff.getName() );
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a dense ARFF file into primitive columns.
+	 *
+	 * @param arff - The ARFF file
+	 * @return The data set
+	 * @throws IOException - When the file can not be read or is not valid
+	 */
+	public static ArffDataset read( File arff ) throws IOException {
+		return read( arff, null, 1 );
+	}
+
+	/**
+	 * Reads a dense ARFF file into primitive columns, tokenizing parts of the
+	 * data section in parallel.
+	 *
+	 * @param arff - The ARFF file
+	 * @param threads - The number of threads to parse with
+	 * @return The data set, with rows in the order of the file
+	 * @throws IOException - When the file can not be read or is not valid
+	 */
+	public static ArffDataset read( File arff, int threads ) throws IOException {
+		if( threads <= 1 ) {
+			return read( arff );
+		}
+		ExecutorService executor = Executors.newFixedThreadPool( threads );
+		try {
+			return read( arff, executor, threads * CHUNKS_PER_THREAD );
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Reads a dense ARFF file into primitive columns. The data section is split
+	 * into newline aligned chunks, which are tokenized on the executor and
+	 * appended in order.
+	 *
+	 * @param arff - The ARFF file
+	 * @param executor - The executor to parse on, or null to parse on the calling thread
+	 * @param chunks - The (maximal) number of chunks per mapped window
+	 * @return The data set, with rows in the order of the file
+	 * @throws IOException - When the file can not be read or is not valid
+	 */
+	public static ArffDataset read( File arff, ExecutorService executor, int chunks ) throws IOException {
+		ArffHeader header = readHeader( arff );
+		RandomAccessFile file = new RandomAccessFile( arff, "r" );
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			ArffColumns columns = new ArffColumns( header, 1024 );
+			long position = header.getDataOffset();
+			while( position < size ) {
+				long length = Math.min( WINDOW_SIZE, size - position );
+				MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, position, length );
+				int end = (int) length;
+				if( position + length < size ) {
+					end = lastLineEnd( buffer, end );
+				}
+				int windowChunks = Math.min( chunks, end / MIN_CHUNK_SIZE );
+				if( executor == null || windowChunks <= 1 ) {
+					parseRows( buffer, 0, end, columns );
+				} else {
+					parseChunks( buffer, end, windowChunks, columns, executor );
+				}
+				position += end;
+			}
+			return columns.toDataset();
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Reads an ARFF file into compressed sparse rows. Only the non-zero values
+	 * of each row are stored, so that data sets with many attributes (e.g.,
+	 * bag of words) are never expanded into dense rows. Dense rows in the file
+	 * are accepted as well.
+	 *
+	 * @param arff - The ARFF file
+	 * @return The data set
+	 * @throws IOException - When the file can not be read or is not valid
+	 */
+	public static ArffSparseDataset readSparse( File arff ) throws IOException {
+		ArffHeader header = readHeader( arff );
+		RandomAccessFile file = new RandomAccessFile( arff, "r" );
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			ArffSparseRows rows = new ArffSparseRows( header, 1024 );
+			long position = header.getDataOffset();
+			while( position < size ) {
+				long length = Math.min( WINDOW_SIZE, size - position );
+				MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, position, length );
+				int end = (int) length;
+				if( position + length < size ) {
+					end = lastLineEnd( buffer, end );
+				}
+				parseSparseRows( buffer, 0, end, rows );
+				position += end;
+			}
+			return rows.toDataset();
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * @return An upper bound of the number of dense rows in a part of the data
+	 * section. The columns reserved for a chunk are then proportional to the
+	 * size of the chunk, whatever the number of attributes.
+	 */
+	static int estimateRows( ArffHeader header, int bytes ) {
+		return bytes / ( Math.max( 1, header.numAttributes() ) * MIN_VALUE_SIZE ) + 1;
+	}
+
+	private static void parseChunks( ByteBuffer buffer, int end, int chunks, ArffColumns columns, ExecutorService executor ) throws IOException {
+		final ArffHeader header = columns.getHeader();
+		List<Future<ArffColumns>> futures = new ArrayList<Future<ArffColumns>>();
+		int start = 0;
+		for( int i = 1; i <= chunks && start < end; ++i ) {
+			int stop = i == chunks ? end : nextLineStart( buffer, (int) ( (long) end * i / chunks ), end );
+			if( stop <= start ) {
+				continue;
+			}
+			// absolute reads on a duplicate do not interfere with other chunks
+			final ByteBuffer chunk = buffer.duplicate();
+			final int chunkStart = start;
+			final int chunkEnd = stop;
+			futures.add( executor.submit( new Callable<ArffColumns>() {
+				public ArffColumns call() throws IOException {
+					ArffColumns result = new ArffColumns( header, estimateRows( header, chunkEnd - chunkStart ) );
+					parseRows( chunk, chunkStart, chunkEnd, result );
+					return result;
+				}
+			} ) );
+			start = stop;
+		}
+
+		try {
+			for( Future<ArffColumns> future : futures ) {
+				columns.append( future.get() );
+			}
+		} catch( ExecutionException e ) {
+			for( Future<ArffColumns> future : futures ) {
+				future.cancel( true );
+			}
+			if( e.getCause() instanceof IOException ) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException( "Could not parse data section: " + e.getCause() );
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException( "Interrupted while parsing data section. " );
+		}
+	}
+
+	/**
+	 * @return The position directly after the first newline at or after position, or end
+	 */
+	static int nextLineStart( ByteBuffer buffer, int position, int end ) {
+		while( position < end && buffer.get( position ) != '\n' ) {
+			position += 1;
+		}
+		return Math.min( position + 1, end );
+	}
+
+	/**
+	 * @return The position directly after the last newline before end
+	 * @throws IOException - When there is no newline in the buffer
+	 */
+	static int lastLineEnd( ByteBuffer buffer, int end ) throws IOException {
+		for( int i = end - 1; i >= 0; --i ) {
+			if( buffer.get( i ) == '\n' ) {
+				return i + 1;
+			}
+		}
+		throw new IOException( "Line in data section exceeds " + end + " bytes. " );
+	}
+
+	/**
+	 * Parses all lines in buffer[start, end) into the columns. The range should
+	 * start at the beginning of a line.
+	 */
+	static void parseRows( ByteBuffer buffer, int start, int end, ArffColumns columns ) throws IOException {
+		Token token = new Token();
+		int position = start;
+		while( position < end ) {
+			int lineEnd = lineEnd( buffer, position, end );
+			int stop = trimLine( buffer, position, lineEnd );
+			int p = skipWhitespace( buffer, position, stop );
+			if( p < stop && buffer.get( p ) != '%' ) {
+				if( buffer.get( p ) == '{' ) {
+					throw new IOException( "Sparse instance in row " + ( columns.rows() + 1 ) + "; use ArffReader.readSparse. " );
+				}
+				parseDenseRow( buffer, p, stop, columns, token );
+			}
+			position = lineEnd + 1;
+		}
+	}
+
+	private static void parseDenseRow( ByteBuffer buffer, int p, int stop, ArffColumns columns, Token token ) throws IOException {
+		ArffHeader header = columns.getHeader();
+		int n = header.numAttributes();
+		int row = columns.rows() + 1;
+		columns.startRow();
+		for( int attribute = 0; attribute < n; ++attribute ) {
+			p = skipWhitespace( buffer, p, stop );
+			if( p >= stop ) {
+				throw new IOException( "Row " + row + " contains " + attribute + " values, expected " + n + ". " );
+			}
+			p = token.scan( buffer, p, stop, false, row );
+			if( token.isMissing( buffer ) ) {
+				columns.setMissing( attribute );
+			} else if( columns.isNumeric( attribute ) ) {
+				columns.setNumeric( attribute, parseDouble( buffer, token.start, token.end ) );
+			} else {
+				columns.setCode( attribute, code( buffer, token, header.getAttribute( attribute ), columns.dictionary( attribute ), row ) );
+			}
+		}
+		checkRowEnd( buffer, p, stop, row );
+		columns.endRow();
+	}
+
+	/**
+	 * Parses all lines in buffer[start, end) into sparse rows. Dense lines
+	 * are stored without their zero values.
+	 */
+	static void parseSparseRows( ByteBuffer buffer, int start, int end, ArffSparseRows rows ) throws IOException {
+		ArffHeader header = rows.getHeader();
+		int n = header.numAttributes();
+		Token token = new Token();
+		int position = start;
+		while( position < end ) {
+			int lineEnd = lineEnd( buffer, position, end );
+			int stop = trimLine( buffer, position, lineEnd );
+			int p = skipWhitespace( buffer, position, stop );
+			if( p < stop && buffer.get( p ) != '%' ) {
+				int row = rows.rows() + 1;
+				if( buffer.get( p ) == '{' ) {
+					p += 1;
+					while( true ) {
+						p = skipWhitespace( buffer, p, stop );
+						if( p >= stop ) {
+							throw new IOException( "Unterminated sparse instance in row " + row + ". " );
+						}
+						if( buffer.get( p ) == '}' ) {
+							p += 1;
+							break;
+						}
+						int index = 0;
+						int digits = 0;
+						while( p < stop && buffer.get( p ) >= '0' && buffer.get( p ) <= '9' && digits < 10 ) {
+							index = index * 10 + ( buffer.get( p ) - '0' );
+							digits += 1;
+							p += 1;
+						}
+						if( digits == 0 || index >= n ) {
+							throw new IOException( "Invalid attribute index in row " + row + ". " );
+						}
+						p = token.scan( buffer, skipWhitespace( buffer, p, stop ), stop, true, row );
+						rows.add( index, sparseValue( buffer, token, header.getAttribute( index ), rows.dictionary( index ), row ) );
+					}
+				} else {
+					for( int attribute = 0; attribute < n; ++attribute ) {
+						p = skipWhitespace( buffer, p, stop );
+						if( p >= stop ) {
+							throw new IOException( "Row " + row + " contains " + attribute + " values, expected " + n + ". " );
+						}
+						p = token.scan( buffer, p, stop, false, row );
+						double value = sparseValue( buffer, token, header.getAttribute( attribute ), rows.dictionary( attribute ), row );
+						if( value != 0.0 ) {
+							rows.add( attribute, value );
+						}
+					}
+				}
+				checkRowEnd( buffer, p, stop, row );
+				rows.endRow();
+			}
+			position = lineEnd + 1;
+		}
+	}
+
+	private static double sparseValue( ByteBuffer buffer, Token token, ArffAttribute attribute, ByteDictionary dictionary, int row ) throws IOException {
+		if( token.isMissing( buffer ) ) {
+			return Double.NaN;
+		} else if( attribute.isNumeric() ) {
+			return parseDouble( buffer, token.start, token.end );
+		} else {
+			return code( buffer, token, attribute, dictionary, row );
+		}
+	}
+
+	/**
+	 * @return The code of a token in the dictionary of a nominal, string or date attribute
+	 * @throws IOException - When the value is not declared for a nominal attribute
+	 */
+	static int code( ByteBuffer buffer, Token token, ArffAttribute attribute, ByteDictionary dictionary, int row ) throws IOException {
+		boolean nominal = attribute.getType() == ArffAttribute.Type.NOMINAL;
+		int code;
+		if( token.escaped ) {
+			String value = ArffAttribute.unescape( decode( buffer, token.start, token.end ) );
+			code = nominal ? dictionary.lookup( value ) : dictionary.add( value );
+		} else {
+			code = nominal ? dictionary.lookup( buffer, token.start, token.end ) : dictionary.add( buffer, token.start, token.end );
+		}
+		if( code < 0 ) {
+			throw new IOException( "Value '" + decode( buffer, token.start, token.end ) + "' is not declared for attribute " +
+				attribute.getName() + " (row " + row + "). " );
+		}
+		return code;
+	}
+
+	private static void checkRowEnd( ByteBuffer buffer, int p, int stop, int row ) throws IOException {
+		p = skipWhitespace( buffer, p, stop );
+		// an instance weight ({w}) or comment may follow the values
+		if( p < stop && buffer.get( p ) != '{' && buffer.get( p ) != '%' ) {
+			throw new IOException( "Row " + row + " contains more values than declared attributes. " );
+		}
+	}
+
+	private static int lineEnd( ByteBuffer buffer, int position, int end ) {
+		while( position < end && buffer.get( position ) != '\n' ) {
+			position += 1;
+		}
+		return position;
+	}
+
+	private static int trimLine( ByteBuffer buffer, int start, int lineEnd ) {
+		return lineEnd > start && buffer.get( lineEnd - 1 ) == '\r' ? lineEnd - 1 : lineEnd;
+	}
+
+	/**
+	 * Position of the last scanned value in the buffer. Reused for all values
+	 * of a chunk, so that tokenizing does not allocate.
+	 */
+	static final class Token {
+		int start;
+		int end;
+		boolean quoted;
+		boolean escaped;
+
+		/**
+		 * Scans the value starting at p, which should not be whitespace.
+		 *
+		 * @param sparse - Whether the value is part of a sparse instance, which also ends at '}'
+		 * @return The position after the value and its separator
+		 */
+		int scan( ByteBuffer buffer, int p, int stop, boolean sparse, int row ) throws IOException {
+			byte first = p < stop ? buffer.get( p ) : (byte) ',';
+			quoted = first == '\'' || first == '"';
+			escaped = false;
+			if( quoted ) {
+				start = p + 1;
+				int i = start;
+				while( i < stop && buffer.get( i ) != first ) {
+					if( buffer.get( i ) == '\\' ) {
+						escaped = true;
+						i += 1;
+					}
+					i += 1;
+				}
+				if( i >= stop ) {
+					throw new IOException( "Unterminated quote in row " + row + ". " );
+				}
+				end = i;
+				p = skipWhitespace( buffer, i + 1, stop );
+			} else {
+				start = p;
+				int i = p;
+				while( i < stop && buffer.get( i ) != ',' && ( sparse == false || buffer.get( i ) != '}' ) ) {
+					i += 1;
+				}
+				end = i;
+				while( end > start && isWhitespace( buffer.get( end - 1 ) ) ) {
+					end -= 1;
+				}
+				p = i;
+			}
+			if( p < stop && buffer.get( p ) == ',' ) {
+				p += 1;
+			}
+			return p;
+		}
+
+		boolean isMissing( ByteBuffer buffer ) {
+			return quoted == false && end - start == 1 && buffer.get( start ) == '?';
+		}
+	}
+
+	/**
+	 * Parses a decimal number directly from bytes. Numbers with at most 15
+	 * significant digits and a small exponent (the vast majority in data
+	 * files) are converted exactly without creating a String.
+	 */
+	static double parseDouble( ByteBuffer buffer, int start, int end ) throws IOException {
+		int i = start;
+		boolean negative = false;
+		if( i < end && ( buffer.get( i ) == '-' || buffer.get( i ) == '+' ) ) {
+			negative = buffer.get( i ) == '-';
+			i += 1;
+		}
+		long mantissa = 0;
+		int significant = 0;
+		int exponent = 0;
+		boolean digits = false;
+		while( i < end ) {
+			int d = buffer.get( i ) - '0';
+			if( d < 0 || d > 9 ) break;
+			digits = true;
+			if( significant < 18 ) {
+				mantissa = mantissa * 10 + d;
+				if( mantissa != 0 ) significant += 1;
+			} else {
+				exponent += 1;
+			}
+			i += 1;
+		}
+		if( i < end && buffer.get( i ) == '.' ) {
+			i += 1;
+			while( i < end ) {
+				int d = buffer.get( i ) - '0';
+				if( d < 0 || d > 9 ) break;
+				digits = true;
+				if( significant < 18 ) {
+					mantissa = mantissa * 10 + d;
+					if( mantissa != 0 ) significant += 1;
+					exponent -= 1;
+				}
+				i += 1;
+			}
+		}
+		if( digits == false ) {
+			return parseDoubleSlow( buffer, start, end );
+		}
+		if( i < end && ( buffer.get( i ) == 'e' || buffer.get( i ) == 'E' ) ) {
+			i += 1;
+			boolean negativeExponent = false;
+			if( i < end && ( buffer.get( i ) == '-' || buffer.get( i ) == '+' ) ) {
+				negativeExponent = buffer.get( i ) == '-';
+				i += 1;
+			}
+			int value = 0;
+			boolean exponentDigits = false;
+			while( i < end ) {
+				int d = buffer.get( i ) - '0';
+				if( d < 0 || d > 9 ) break;
+				exponentDigits = true;
+				if( value < 10000 ) value = value * 10 + d;
+				i += 1;
+			}
+			if( exponentDigits == false ) {
+				return parseDoubleSlow( buffer, start, end );
+			}
+			exponent += negativeExponent ? -value : value;
+		}
+		if( i != end || mantissa > ( 1L << 53 ) || exponent < -22 || exponent > 22 ) {
+			return parseDoubleSlow( buffer, start, end );
+		}
+		// both operands are exact, so the result is correctly rounded
+		double result = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+		return negative ? -result : result;
+	}
+
+	private static double parseDoubleSlow( ByteBuffer buffer, int start, int end ) throws IOException {
+		String token = decode( buffer, start, end );
+		try {
+			return Double.parseDouble( token );
+		} catch( NumberFormatException e ) {
+			throw new IOException( "Not a numeric value: '" + token + "'" );
+		}
+	}
+
+	static String decode( ByteBuffer buffer, int start, int end ) {
+		byte[] bytes = new byte[end - start];
+		for( int i = start; i < end; ++i ) {
+			bytes[i - start] = buffer.get( i );
+		}
+		return new String( bytes, ByteDictionary.UTF8 );
+	}
+
+	static int skipWhitespace( ByteBuffer buffer, int position, int end ) {
+		while( position < end && isWhitespace( buffer.get( position ) ) ) {
+			position += 1;
+		}
+		return position;
+	}
+
+	private static boolean isWhitespace( byte b ) {
+		return b == ' ' || b == '\t' || b == '\r';
+	}
+
+	private static String stripQuotes( String s ) {
+		if( s.length() >= 2 && ( s.charAt( 0 ) == '\'' || s.charAt( 0 ) == '"' ) && s.charAt( s.length() - 1 ) == s.charAt( 0 ) ) {
+			return s.substring( 1, s.length() - 1 );
+		}
+		return s;
+	}
+}
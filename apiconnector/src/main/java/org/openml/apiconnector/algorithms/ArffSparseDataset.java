@@ -0,0 +1,149 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * An ARFF data set in compressed sparse row format. The entries of row r are
+ * stored at positions rowPointers[r] (inclusive) to rowPointers[r+1]
+ * (exclusive) of the indices (attribute index, ascending) and values arrays.
+ * Values of numeric attributes are stored as is; values of nominal, string
+ * and date attributes as their code in the dictionary of the attribute.
+ * Attributes that are not stored have value 0 (which for a nominal attribute
+ * is its first value); missing values are stored as NaN.
+ */
+public class ArffSparseDataset {
+
+	private final ArffHeader header;
+	private final int numInstances;
+	private final int[] rowPointers;
+	private final int[] indices;
+	private final double[] values;
+	private final String[][] dictionaries;
+
+	/**
+	 * @param header - The header of the data set
+	 * @param numInstances - The number of rows
+	 * @param rowPointers - Per row the start of its entries, followed by the number of entries
+	 * @param indices - The attribute indices of the entries
+	 * @param values - The values of the entries
+	 * @param dictionaries - Per attribute the values the codes refer to, or null for numeric attributes
+	 */
+	public ArffSparseDataset( ArffHeader header, int numInstances, int[] rowPointers, int[] indices, double[] values, String[][] dictionaries ) {
+		this.header = header;
+		this.numInstances = numInstances;
+		this.rowPointers = rowPointers;
+		this.indices = indices;
+		this.values = values;
+		this.dictionaries = dictionaries;
+	}
+
+	public ArffHeader getHeader() {
+		return header;
+	}
+
+	public int numInstances() {
+		return numInstances;
+	}
+
+	public int numAttributes() {
+		return header.numAttributes();
+	}
+
+	/**
+	 * @return The number of stored entries
+	 */
+	public int numEntries() {
+		return rowPointers[numInstances];
+	}
+
+	/**
+	 * @return Per row the start of its entries, followed by the number of entries. Not a copy.
+	 */
+	public int[] getRowPointers() {
+		return rowPointers;
+	}
+
+	/**
+	 * @return The attribute indices of all entries. Not a copy.
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+
+	/**
+	 * @return The values of all entries. Not a copy.
+	 */
+	public double[] getValues() {
+		return values;
+	}
+
+	/**
+	 * @param attribute - Index of a nominal, string or date attribute
+	 * @return The values that the codes refer to. For nominal attributes these are the declared values.
+	 */
+	public String[] getDictionary( int attribute ) {
+		return dictionaries[attribute];
+	}
+
+	/**
+	 * @return The value of numeric attributes, the code of other attributes,
+	 * or NaN if the value is missing.
+	 */
+	public double value( int row, int attribute ) {
+		int position = Arrays.binarySearch( indices, rowPointers[row], rowPointers[row + 1], attribute );
+		return position < 0 ? 0.0 : values[position];
+	}
+
+	public boolean isMissing( int row, int attribute ) {
+		return Double.isNaN( value( row, attribute ) );
+	}
+
+	/**
+	 * @return The value as it was in the ARFF file, or null if it is missing.
+	 */
+	public String stringValue( int row, int attribute ) {
+		double value = value( row, attribute );
+		if( Double.isNaN( value ) ) {
+			return null;
+		}
+		if( dictionaries[attribute] == null ) {
+			return MathHelper.defaultDecimalFormat.format( value );
+		}
+		return dictionaries[attribute][(int) value];
+	}
+
+	/**
+	 * @return The row with all attributes, NaN for missing values
+	 */
+	public double[] denseRow( int row ) {
+		double[] result = new double[numAttributes()];
+		for( int i = rowPointers[row]; i < rowPointers[row + 1]; ++i ) {
+			result[indices[i]] = values[i];
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + header.getRelation() + ", " + numInstances + " instances, " + numAttributes() + " attributes, " + numEntries() + " entries]";
+	}
+}
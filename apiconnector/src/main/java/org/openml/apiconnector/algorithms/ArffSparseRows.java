@@ -0,0 +1,157 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Growable compressed sparse rows into which the rows of an ARFF data
+ * section are parsed. Turned into an ArffSparseDataset once parsing is done.
+ */
+class ArffSparseRows {
+
+	/**
+	 * The largest array length that virtual machines generally support.
+	 */
+	static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private final ArffHeader header;
+	private final ByteDictionary[] dictionaries;
+	private int[] rowPointers;
+	private int[] indices;
+	private double[] values;
+	private int rows = 0;
+	private int entries = 0;
+
+	ArffSparseRows( ArffHeader header, int initialCapacity ) {
+		this.header = header;
+		int capacity = Math.max( 16, initialCapacity );
+		rowPointers = new int[capacity + 1];
+		indices = new int[capacity];
+		values = new double[capacity];
+		dictionaries = new ByteDictionary[header.numAttributes()];
+		for( int i = 0; i < dictionaries.length; ++i ) {
+			ArffAttribute attribute = header.getAttribute( i );
+			if( attribute.getType() == ArffAttribute.Type.NOMINAL ) {
+				dictionaries[i] = new ByteDictionary( attribute.getValues() );
+			} else if( attribute.isNumeric() == false ) {
+				dictionaries[i] = new ByteDictionary();
+			}
+		}
+	}
+
+	ArffHeader getHeader() {
+		return header;
+	}
+
+	int rows() {
+		return rows;
+	}
+
+	/**
+	 * @return The dictionary of a nominal, string or date attribute
+	 */
+	ByteDictionary dictionary( int attribute ) {
+		return dictionaries[attribute];
+	}
+
+	/**
+	 * Adds an entry to the current row.
+	 *
+	 * @throws IOException - When the data set has more entries than an array can hold
+	 */
+	void add( int attribute, double value ) throws IOException {
+		if( entries == indices.length ) {
+			int capacity = grow( indices.length, "entries" );
+			indices = Arrays.copyOf( indices, capacity );
+			values = Arrays.copyOf( values, capacity );
+		}
+		indices[entries] = attribute;
+		values[entries] = value;
+		entries += 1;
+	}
+
+	/**
+	 * Completes the current row, sorting its entries by attribute index if needed.
+	 *
+	 * @throws IOException - When the row contains an attribute twice
+	 */
+	void endRow() throws IOException {
+		int start = rowPointers[rows];
+		for( int i = start + 1; i < entries; ++i ) {
+			if( indices[i] <= indices[i - 1] ) {
+				sortRow( start );
+				break;
+			}
+		}
+		for( int i = start + 1; i < entries; ++i ) {
+			if( indices[i] == indices[i - 1] ) {
+				throw new IOException( "Row " + ( rows + 1 ) + " contains attribute " + indices[i] + " more than once. " );
+			}
+		}
+		rows += 1;
+		if( rows + 1 == rowPointers.length ) {
+			rowPointers = Arrays.copyOf( rowPointers, grow( rowPointers.length, "rows" ) );
+		}
+		rowPointers[rows] = entries;
+	}
+
+	// doubles a capacity, without exceeding the largest array length
+	static int grow( int capacity, String what ) throws IOException {
+		if( capacity >= MAX_CAPACITY ) {
+			throw new IOException( "Sparse data set has more than " + MAX_CAPACITY + " " + what + ", which do not fit in an array. " );
+		}
+		return (int) Math.min( (long) capacity * 2, MAX_CAPACITY );
+	}
+
+	// insertion sort; rows in ARFF files are (almost) always sorted already
+	private void sortRow( int start ) {
+		for( int i = start + 1; i < entries; ++i ) {
+			int index = indices[i];
+			double value = values[i];
+			int j = i - 1;
+			while( j >= start && indices[j] > index ) {
+				indices[j + 1] = indices[j];
+				values[j + 1] = values[j];
+				j -= 1;
+			}
+			indices[j + 1] = index;
+			values[j + 1] = value;
+		}
+	}
+
+	/**
+	 * @return The parsed rows as data set, with arrays trimmed to their content
+	 */
+	ArffSparseDataset toDataset() {
+		String[][] dictionaryResult = new String[dictionaries.length][];
+		for( int i = 0; i < dictionaries.length; ++i ) {
+			ArffAttribute attribute = header.getAttribute( i );
+			if( attribute.getType() == ArffAttribute.Type.NOMINAL ) {
+				dictionaryResult[i] = attribute.getValues();
+			} else if( dictionaries[i] != null ) {
+				dictionaryResult[i] = dictionaries[i].toArray();
+			}
+		}
+		return new ArffSparseDataset( header, rows, Arrays.copyOf( rowPointers, rows + 1 ),
+			Arrays.copyOf( indices, entries ), Arrays.copyOf( values, entries ), dictionaryResult );
+	}
+}
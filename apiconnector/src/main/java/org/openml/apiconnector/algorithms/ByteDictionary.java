@@ -0,0 +1,168 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Maps (UTF-8 encoded) values to consecutive integer codes. Lookups are done
+ * directly on a range of bytes in a buffer, so that tokens of a data file
+ * can be coded without creating a String per token.
+ */
+class ByteDictionary {
+
+	static final Charset UTF8 = Charset.forName( "UTF-8" );
+
+	private byte[][] keys = new byte[16][];
+	private int[] table = new int[32]; // code + 1; 0 is empty
+	private int size = 0;
+
+	ByteDictionary() {
+	}
+
+	ByteDictionary( String[] values ) {
+		for( String value : values ) {
+			byte[] key = value.getBytes( UTF8 );
+			if( find( key ) < 0 ) {
+				insert( key );
+			}
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return The code of the value stored in buffer[start, end), or -1 if it is unknown
+	 */
+	int lookup( ByteBuffer buffer, int start, int end ) {
+		int mask = table.length - 1;
+		for( int slot = hash( buffer, start, end ) & mask; ; slot = ( slot + 1 ) & mask ) {
+			int code = table[slot] - 1;
+			if( code < 0 ) {
+				return -1;
+			}
+			if( equals( keys[code], buffer, start, end ) ) {
+				return code;
+			}
+		}
+	}
+
+	/**
+	 * @return The code of the value stored in buffer[start, end), adding it if it is unknown
+	 */
+	int add( ByteBuffer buffer, int start, int end ) {
+		int code = lookup( buffer, start, end );
+		if( code >= 0 ) {
+			return code;
+		}
+		byte[] key = new byte[end - start];
+		for( int i = start; i < end; ++i ) {
+			key[i - start] = buffer.get( i );
+		}
+		return insert( key );
+	}
+
+	/**
+	 * @return The code of the value, or -1 if it is unknown
+	 */
+	int lookup( String value ) {
+		return find( value.getBytes( UTF8 ) );
+	}
+
+	/**
+	 * @return The code of the value, adding it if it is unknown
+	 */
+	int add( String value ) {
+		byte[] key = value.getBytes( UTF8 );
+		int code = find( key );
+		return code >= 0 ? code : insert( key );
+	}
+
+	String get( int code ) {
+		return new String( keys[code], UTF8 );
+	}
+
+	String[] toArray() {
+		String[] result = new String[size];
+		for( int i = 0; i < size; ++i ) {
+			result[i] = get( i );
+		}
+		return result;
+	}
+
+	private int find( byte[] key ) {
+		return lookup( ByteBuffer.wrap( key ), 0, key.length );
+	}
+
+	private int insert( byte[] key ) {
+		if( size == keys.length ) {
+			keys = Arrays.copyOf( keys, size * 2 );
+		}
+		keys[size] = key;
+		size += 1;
+		if( size * 2 > table.length ) {
+			rehash( table.length * 2 );
+		} else {
+			place( size - 1 );
+		}
+		return size - 1;
+	}
+
+	private void rehash( int capacity ) {
+		table = new int[capacity];
+		for( int code = 0; code < size; ++code ) {
+			place( code );
+		}
+	}
+
+	private void place( int code ) {
+		byte[] key = keys[code];
+		int mask = table.length - 1;
+		int slot = hash( ByteBuffer.wrap( key ), 0, key.length ) & mask;
+		while( table[slot] != 0 ) {
+			slot = ( slot + 1 ) & mask;
+		}
+		table[slot] = code + 1;
+	}
+
+	private static int hash( ByteBuffer buffer, int start, int end ) {
+		int h = 0x811c9dc5;
+		for( int i = start; i < end; ++i ) {
+			h = ( h ^ buffer.get( i ) ) * 0x01000193;
+		}
+		return h ^ ( h >>> 16 );
+	}
+
+	private static boolean equals( byte[] key, ByteBuffer buffer, int start, int end ) {
+		if( key.length != end - start ) {
+			return false;
+		}
+		for( int i = 0; i < key.length; ++i ) {
+			if( key[i] != buffer.get( start + i ) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -1,32 +1,252 @@
 package org.openml.apiconnector.algorithms;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.openml.apiconnector.settings.Settings;
 import org.openml.apiconnector.xstream.XstreamXmlMapping;
 
 public class Caching {
 	
+	/**
+	 * Time to live that is used for types without a specific policy.
+	 */
+	public static final long DEFAULT_TIME_TO_LIVE = 60 * 60 * 1000L; // 1 hour
+	
+	/**
+	 * The XML of cached objects, keyed on type and identifier. Sits in front of
+	 * the files in the cache directory. Every access unmarshals a new copy, so
+	 * that callers can not change the objects that others obtain. Its capacity
+	 * follows Settings.CACHE_MEMORY_SIZE, also when that is changed later on.
+	 */
+	private static final LruCache<String, Entry> memory = new LruCache<String, Entry>( Settings.CACHE_MEMORY_SIZE );
+	
+	/**
+	 * Time to live per type, in milliseconds.
+	 */
+	private static final Map<String, Long> timeToLive = new HashMap<String, Long>();
+	
+	static {
+		// status and tags of these can change
+		timeToLive.put( "datadescription", 60 * 60 * 1000L );
+		timeToLive.put( "task", 60 * 60 * 1000L );
+		timeToLive.put( "run", 60 * 60 * 1000L );
+		// these are (practically) immutable once calculated
+		timeToLive.put( "datafeatures", 24 * 60 * 60 * 1000L );
+		timeToLive.put( "dataquality", 24 * 60 * 60 * 1000L );
+		timeToLive.put( "implementation", 24 * 60 * 60 * 1000L );
+	}
+	
+	/**
+	 * Stores an object in the memory cache and in the cache directory.
+	 *
+	 * @param o - The object to cache
+	 * @param type - The type of the object
+	 * @param identifier - The id of the object
+	 * @throws IOException
+	 */
 	public static void cache( Object o, String type, int identifier ) throws IOException {
+		String xml = XstreamXmlMapping.getInstance().toXML(o);
+		memory().put( key( type, identifier ), new Entry( type, identifier, xml, System.currentTimeMillis() ) );
 		String directoryPath = Settings.CACHE_DIRECTORY + "/" + type;
 		File directory = new File( directoryPath );
 		directory.mkdirs();
 		BufferedWriter bw = new BufferedWriter( new FileWriter( new File( directory.getAbsolutePath() + "/" + identifier ) ) );
-		bw.append( XstreamXmlMapping.getInstance().toXML(o) );
+		bw.append( xml );
 		bw.close();
 	}
 	
+	/**
+	 * @param type - The type of the cached object
+	 * @param identifier - The id of the cached object
+	 * @return A copy of the object from the memory cache, or null if it is not in there. 
+	 */
+	public static Object get( String type, int identifier ) {
+		Entry entry = memory().get( key( type, identifier ) );
+		return entry == null ? null : unmarshal( entry.xml );
+	}
+	
+	/**
+	 * Looks up an object in memory, or otherwise in the cache directory. An
+	 * object from the cache directory is only parsed once its value is requested.
+	 *
+	 * @param type - The type of the cached object
+	 * @param identifier - The id of the cached object
+	 * @return The cache entry (which might be stale), or null if the object is not cached
+	 */
+	public static Entry lookup( String type, int identifier ) {
+		Entry entry = memory().get( key( type, identifier ) );
+		if( entry != null ) {
+			return entry;
+		}
+		File file = new File( Settings.CACHE_DIRECTORY + "/" + type + "/" + identifier );
+		if( file.exists() ) {
+			return new Entry( type, identifier, null, file.lastModified() );
+		}
+		return null;
+	}
+	
+	/**
+	 * Marks a cached object as up to date, e.g., after the server indicated
+	 * it was not modified. This restarts its time to live.
+	 *
+	 * @param entry - The entry that was revalidated
+	 * @throws IOException
+	 */
+	public static void revalidated( Entry entry ) throws IOException {
+		long now = System.currentTimeMillis();
+		memory().put( key( entry.type, entry.identifier ), new Entry( entry.type, entry.identifier, entry.getXml(), now ) );
+		File file = new File( Settings.CACHE_DIRECTORY + "/" + entry.type + "/" + entry.identifier );
+		if( file.exists() ) {
+			file.setLastModified( now );
+		}
+	}
+	
+	/**
+	 * Reads a cached object from memory, or otherwise from the cache directory
+	 * directory. Objects read from the cache directory are kept in memory. 
+	 * Does not take the time to live into account.
+	 *
+	 * @param type - The type of the cached object
+	 * @param identifier - The id of the cached object
+	 * @return A copy of the cached object
+	 * @throws IOException - When the object is not in the cache
+	 */
+	public static Object load( String type, int identifier ) throws IOException {
+		Object o = get( type, identifier );
+		if( o != null ) {
+			return o;
+		}
+		File file = cached( type, identifier );
+		String xml = read( file );
+		memory().put( key( type, identifier ), new Entry( type, identifier, xml, file.lastModified() ) );
+		return unmarshal( xml );
+	}
+	
+	/**
+	 * @param type - The type of cached objects
+	 * @param milliseconds - How long objects of this type are considered up to date.
+	 * Use 0 to always revalidate, and Long.MAX_VALUE to never revalidate.
+	 */
+	public static synchronized void setTimeToLive( String type, long milliseconds ) {
+		timeToLive.put( type, milliseconds );
+	}
+	
+	/**
+	 * @param type - The type of cached objects
+	 * @return How long objects of this type are considered up to date, in milliseconds.
+	 */
+	public static synchronized long getTimeToLive( String type ) {
+		Long ttl = timeToLive.get( type );
+		return ttl == null ? DEFAULT_TIME_TO_LIVE : ttl;
+	}
+	
+	/**
+	 * @return The memory cache, which exposes its size, hits, misses and evictions.
+	 */
+	public static LruCache<String, Entry> getMemoryCache() {
+		return memory();
+	}
+	
 	public static File cached( String type, int identifier ) throws IOException {
 		File cached = new File( Settings.CACHE_DIRECTORY + "/" + type + "/" + identifier );
-		
+
 		if( cached.exists() == false ) {
 			throw new IOException("Cache file of " + type + " #" + identifier + " not available, and only local operations are allowed. ");
 		} else {
 			return cached;
 		}
 	}
+	
+	private static String read( File file ) throws IOException {
+		Reader reader = new BufferedReader( new FileReader( file ) );
+		try {
+			StringBuilder xml = new StringBuilder( (int) file.length() );
+			char[] buffer = new char[8192];
+			for( int read = reader.read( buffer ); read >= 0; read = reader.read( buffer ) ) {
+				xml.append( buffer, 0, read );
+			}
+			return xml.toString();
+		} finally {
+			reader.close();
+		}
+	}
+	
+	private static Object unmarshal( String xml ) {
+		return XstreamXmlMapping.getStreamingInstance().fromXML( new StringReader( xml ) );
+	}
+	
+	// applies changes of the setting, e.g., by the settings loader, on next use
+	private static LruCache<String, Entry> memory() {
+		if( memory.getCapacity() != Settings.CACHE_MEMORY_SIZE ) {
+			memory.setCapacity( Settings.CACHE_MEMORY_SIZE );
+		}
+		return memory;
+	}
+	
+	private static String key( String type, int identifier ) {
+		return type + "/" + identifier;
+	}
+	
+	/**
+	 * A cached object, along with the moment it was obtained from the server.
+	 */
+	public static class Entry {
+		private final String type;
+		private final int identifier;
+		private final long storedAt;
+		private String xml;
 
+		private Entry( String type, int identifier, String xml, long storedAt ) {
+			this.type = type;
+			this.identifier = identifier;
+			this.xml = xml;
+			this.storedAt = storedAt;
+		}
+
+		/**
+		 * @return A copy of the cached object. The cache directory is read on first access.
+		 * @throws IOException
+		 */
+		public Object getValue() throws IOException {
+			return unmarshal( getXml() );
+		}
+
+		private synchronized String getXml() throws IOException {
+			if( xml == null ) {
+				xml = read( cached( type, identifier ) );
+				memory().put( key( type, identifier ), this );
+			}
+			return xml;
+		}
+
+		/**
+		 * @return The moment (in milliseconds since the epoch) on which the object was obtained
+		 * from the server, or last revalidated.
+		 */
+		public long getStoredAt() {
+			return storedAt;
+		}
+
+		/**
+		 * @return true if the entry is within the time to live of its type; false otherwise
+		 */
+		public boolean isFresh() {
+			long age = System.currentTimeMillis() - storedAt;
+			return age >= 0 && age < getTimeToLive( type );
+		}
+
+		@Override
+		public String toString() {
+			return "[" + type + " #" + identifier + "]";
+		}
+	}
 }
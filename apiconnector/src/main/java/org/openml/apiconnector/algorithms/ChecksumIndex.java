@@ -0,0 +1,204 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.openml.apiconnector.settings.Settings;
+
+/**
+ * Keeps the verified MD5 hash of a cached file in a small sidecar file,
+ * along with the size and modification time of the file at that moment.
+ * As long as size and modification time are unchanged, the stored hash is
+ * trusted and the file does not need to be read again.
+ */
+public class ChecksumIndex {
+
+	public static final String SIDECAR_SUFFIX = ".md5";
+
+	private static final String KEY_MD5 = "md5";
+	private static final String KEY_SIZE = "size";
+	private static final String KEY_MODIFIED = "modified";
+
+	/**
+	 * @param file - A (cached) file
+	 * @return The MD5 hash of the file. Taken from the sidecar if it is still
+	 * valid; otherwise calculated, and stored in the sidecar if the file is in
+	 * the cache directory.
+	 * @throws IOException
+	 */
+	public static String digest( File file ) throws IOException {
+		String md5 = lookup( file );
+		if( md5 == null ) {
+			md5 = Hashing.md5( file );
+			record( file, md5 );
+		}
+		return md5;
+	}
+
+	/**
+	 * @param file - A file
+	 * @return Whether sidecars may be written for the file: caching is allowed
+	 * and the file is in the cache directory.
+	 */
+	public static boolean isCached( File file ) {
+		if( Settings.CACHE_ALLOWED == false ) {
+			return false;
+		}
+		try {
+			String directory = new File( Settings.CACHE_DIRECTORY ).getCanonicalPath() + File.separator;
+			return file.getCanonicalPath().startsWith( directory );
+		} catch( IOException e ) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param file - A cached file
+	 * @return The stored MD5 hash, or null if there is no sidecar or the file
+	 * changed since it was written.
+	 */
+	public static String lookup( File file ) {
+		File sidecar = sidecar( file );
+		if( sidecar.exists() == false ) {
+			return null;
+		}
+		try {
+			Properties properties = read( sidecar );
+			long size = Long.parseLong( properties.getProperty( KEY_SIZE ) );
+			long modified = Long.parseLong( properties.getProperty( KEY_MODIFIED ) );
+			if( size == file.length() && modified == file.lastModified() ) {
+				return properties.getProperty( KEY_MD5 );
+			}
+		} catch( Exception e ) {
+			// corrupt sidecar; treat as absent
+		}
+		return null;
+	}
+
+	/**
+	 * Stores the MD5 hash of a file, which was calculated while downloading or
+	 * reading it. Does nothing for files outside the cache directory, or when
+	 * caching is not allowed.
+	 *
+	 * @param file - A cached file
+	 * @param md5 - The hash of the current content of the file
+	 * @throws IOException
+	 */
+	public static void record( File file, String md5 ) throws IOException {
+		if( isCached( file ) == false ) {
+			return;
+		}
+		Properties properties = new Properties();
+		properties.setProperty( KEY_MD5, md5 );
+		properties.setProperty( KEY_SIZE, "" + file.length() );
+		properties.setProperty( KEY_MODIFIED, "" + file.lastModified() );
+
+		// write and rename, so that readers never see a half written sidecar
+		File sidecar = sidecar( file );
+		File temp = new File( sidecar.getAbsolutePath() + ".tmp" );
+		OutputStream out = new FileOutputStream( temp );
+		try {
+			properties.store( out, null );
+		} finally {
+			out.close();
+		}
+		if( Conversion.replaceFile( temp, sidecar ) == false ) {
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Recalculates the hash of every file in a cache directory that has a sidecar,
+	 * and corrects the sidecars of files whose content changed unnoticed.
+	 *
+	 * @param directory - A cache directory, e.g., Settings.CACHE_DIRECTORY + "dataset"
+	 * @return The number of files of which the stored hash was wrong
+	 */
+	public static int verify( File directory ) {
+		int corrected = 0;
+		File[] files = directory.listFiles();
+		if( files == null ) {
+			return corrected;
+		}
+		for( File file : files ) {
+			File sidecar = sidecar( file );
+			if( file.isFile() == false || sidecar.exists() == false ) {
+				continue;
+			}
+			try {
+				String stored = read( sidecar ).getProperty( KEY_MD5 );
+				String actual = Hashing.md5( file );
+				if( actual.equals( stored ) == false ) {
+					Conversion.log( "WARNING", "Checksum Index", "Hash of " + file.getAbsolutePath() + " changed: \n- Stored: " + stored + "\n- Actual: " + actual );
+					record( file, actual );
+					corrected += 1;
+				}
+			} catch( IOException e ) {
+				Conversion.log( "WARNING", "Checksum Index", "Could not verify " + file.getAbsolutePath() + ": " + e.getMessage() );
+			}
+		}
+		return corrected;
+	}
+
+	/**
+	 * Starts verifying the files of a cache directory on a low priority background thread.
+	 *
+	 * @param directory - A cache directory, e.g., Settings.CACHE_DIRECTORY + "dataset"
+	 * @return The (daemon) thread that performs the verification
+	 */
+	public static Thread startVerification( final File directory ) {
+		Thread thread = new Thread( new Runnable() {
+			public void run() {
+				int corrected = verify( directory );
+				Conversion.log( "INFO", "Checksum Index", "Verified " + directory.getAbsolutePath() + ", corrected " + corrected + " hashes. " );
+			}
+		}, "OpenML-ChecksumIndex-verify" );
+		thread.setDaemon( true );
+		thread.setPriority( Thread.MIN_PRIORITY );
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * @param file - A cached file
+	 * @return The sidecar that belongs to the file
+	 */
+	public static File sidecar( File file ) {
+		return new File( file.getAbsolutePath() + SIDECAR_SUFFIX );
+	}
+
+	private static Properties read( File sidecar ) throws IOException {
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream( sidecar );
+		try {
+			properties.load( in );
+		} finally {
+			in.close();
+		}
+		return properties;
+	}
+}
@@ -0,0 +1,302 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.openml.apiconnector.settings.Settings;
+
+/**
+ * Stores a parsed ARFF data set in a binary, column wise file next to the
+ * cached ARFF file. Later loads of the same data set (identifier and MD5)
+ * memory map this file and copy the columns in bulk, instead of tokenizing
+ * the ARFF file again.
+ *
+ * Layout (little endian): magic, version, header length, header (identifier,
+ * MD5, relation, number of instances, attributes and dictionaries), padding
+ * to 8 bytes, and per attribute the column: doubles for numeric attributes
+ * (NaN if missing), int codes for other attributes (-1 if missing), padded 
+ * to 8 bytes. Columns are mapped in windows, so files may exceed 2GB.
+ */
+public class ColumnarCache {
+
+	public static final String SUFFIX = ".columns";
+
+	private static final int MAGIC = 0x4f4d4c43; // OMLC
+	private static final int VERSION = 2;
+	private static final int BLOCK = 1 << 16;
+	// a multiple of 8, so that values never straddle two windows
+	private static final int WINDOW_SIZE = ArffReader.WINDOW_SIZE;
+
+	/**
+	 * Loads a cached ARFF data set, preferably from its columnar file. If that
+	 * is absent or belongs to another version of the ARFF file, the ARFF file
+	 * is parsed and (if caching is allowed) the columnar file is written.
+	 *
+	 * @param identifier - The id of the data set
+	 * @param arff - The cached ARFF file, as returned by ArffHelper.downloadAndCache
+	 * @return The data set
+	 * @throws IOException
+	 */
+	public static ArffDataset load( int identifier, File arff ) throws IOException {
+		String md5 = ChecksumIndex.digest( arff );
+		File columns = columnsFile( arff );
+		if( columns.exists() ) {
+			try {
+				ArffDataset dataset = read( columns, identifier, md5 );
+				if( dataset != null ) {
+					return dataset;
+				}
+				Conversion.log( "INFO", "Columnar Cache", "Columnar file of data set " + identifier + " is outdated. " );
+			} catch( IOException e ) {
+				Conversion.log( "WARNING", "Columnar Cache", "Could not read " + columns.getAbsolutePath() + ": " + e.getMessage() );
+			}
+		}
+
+		ArffDataset dataset = ArffReader.read( arff, Runtime.getRuntime().availableProcessors() );
+		if( Settings.CACHE_ALLOWED ) {
+			try {
+				write( columns, identifier, md5, dataset );
+			} catch( IOException e ) {
+				Conversion.log( "WARNING", "Columnar Cache", "Could not write " + columns.getAbsolutePath() + ": " + e.getMessage() );
+			}
+		}
+		return dataset;
+	}
+
+	/**
+	 * @return The location of the columnar file belonging to an ARFF file
+	 */
+	public static File columnsFile( File arff ) {
+		return new File( arff.getAbsolutePath() + SUFFIX );
+	}
+
+	/**
+	 * Writes a data set to a columnar file. The file is written under a
+	 * temporary name and renamed, so that readers never see a partial file.
+	 */
+	public static void write( File columns, int identifier, String md5, ArffDataset dataset ) throws IOException {
+		ArffHeader header = dataset.getHeader();
+		int rows = dataset.numInstances();
+
+		ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( headerBytes );
+		out.writeInt( identifier );
+		out.writeUTF( md5 );
+		out.writeUTF( header.getRelation() == null ? "" : header.getRelation() );
+		out.writeLong( header.getDataOffset() );
+		out.writeInt( rows );
+		out.writeInt( header.numAttributes() );
+		for( ArffAttribute attribute : header.getAttributes() ) {
+			out.writeUTF( attribute.getName() );
+			out.writeByte( attribute.getType().ordinal() );
+			out.writeUTF( attribute.getDateFormat() == null ? "" : attribute.getDateFormat() );
+			String[] dictionary = attribute.isNumeric() ? new String[0] : dataset.getDictionary( attribute.getIndex() );
+			out.writeInt( dictionary.length );
+			for( String value : dictionary ) {
+				writeLongUTF( out, value );
+			}
+		}
+		out.close();
+
+		File temp = new File( columns.getAbsolutePath() + ".tmp" );
+		RandomAccessFile file = new RandomAccessFile( temp, "rw" );
+		try {
+			file.setLength( 0 );
+			FileChannel channel = file.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect( BLOCK * 8 ).order( ByteOrder.LITTLE_ENDIAN );
+			buffer.putInt( MAGIC ).putInt( VERSION ).putInt( headerBytes.size() );
+			flush( channel, buffer );
+			channel.write( ByteBuffer.wrap( headerBytes.toByteArray() ) );
+			pad( channel, buffer );
+
+			for( int a = 0; a < header.numAttributes(); ++a ) {
+				if( header.getAttribute( a ).isNumeric() ) {
+					for( double value : dataset.getNumericColumn( a ) ) {
+						if( buffer.remaining() < 8 ) flush( channel, buffer );
+						buffer.putDouble( value );
+					}
+				} else {
+					for( int code : dataset.getCodes( a ) ) {
+						if( buffer.remaining() < 4 ) flush( channel, buffer );
+						buffer.putInt( code );
+					}
+				}
+				flush( channel, buffer );
+				pad( channel, buffer );
+			}
+			channel.force( false );
+		} finally {
+			file.close();
+		}
+		if( Conversion.replaceFile( temp, columns ) == false ) {
+			temp.delete();
+			throw new IOException( "Could not rename " + temp.getAbsolutePath() );
+		}
+	}
+
+	/**
+	 * Reads a columnar file.
+	 *
+	 * @param columns - The columnar file
+	 * @param identifier - The expected data set id
+	 * @param md5 - The expected MD5 hash of the ARFF file it was created from
+	 * @return The data set, or null if the file belongs to another data set or version
+	 * @throws IOException - When the file is not a valid columnar file
+	 */
+	public static ArffDataset read( File columns, int identifier, String md5 ) throws IOException {
+		RandomAccessFile file = new RandomAccessFile( columns, "r" );
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			if( size < 12 ) {
+				throw new IOException( "Not a columnar file. " );
+			}
+			ByteBuffer prefix = ByteBuffer.allocate( 12 ).order( ByteOrder.LITTLE_ENDIAN );
+			readFully( channel, prefix, 0 );
+			if( prefix.getInt() != MAGIC ) {
+				throw new IOException( "Not a columnar file. " );
+			}
+			if( prefix.getInt() != VERSION ) {
+				return null;
+			}
+			int headerLength = prefix.getInt();
+			if( headerLength < 0 || 12L + headerLength > size ) {
+				throw new IOException( "Corrupt columnar file: header exceeds file. " );
+			}
+			ByteBuffer headerBytes = ByteBuffer.allocate( headerLength );
+			readFully( channel, headerBytes, 12 );
+			DataInputStream in = new DataInputStream( new ByteArrayInputStream( headerBytes.array() ) );
+			if( in.readInt() != identifier || in.readUTF().equals( md5 ) == false ) {
+				return null;
+			}
+			String relation = in.readUTF();
+			long dataOffset = in.readLong();
+			int rows = in.readInt();
+			int n = in.readInt();
+			ArffAttribute[] attributes = new ArffAttribute[n];
+			String[][] dictionaries = new String[n][];
+			for( int a = 0; a < n; ++a ) {
+				String name = in.readUTF();
+				ArffAttribute.Type type = ArffAttribute.Type.values()[in.readByte()];
+				String dateFormat = in.readUTF();
+				String[] dictionary = new String[in.readInt()];
+				for( int i = 0; i < dictionary.length; ++i ) {
+					dictionary[i] = readLongUTF( in );
+				}
+				attributes[a] = new ArffAttribute( a, name, type,
+					type == ArffAttribute.Type.NOMINAL ? dictionary : null,
+					type == ArffAttribute.Type.DATE ? dateFormat : null );
+				dictionaries[a] = type == ArffAttribute.Type.NUMERIC ? null : dictionary;
+			}
+			long position = align( 12L + headerLength );
+
+			double[][] numeric = new double[n][];
+			int[][] codes = new int[n][];
+			for( int a = 0; a < n; ++a ) {
+				int width = attributes[a].isNumeric() ? 8 : 4;
+				long length = (long) rows * width;
+				if( position + length > size ) {
+					throw new IOException( "Corrupt columnar file: column " + a + " exceeds file. " );
+				}
+				if( attributes[a].isNumeric() ) {
+					numeric[a] = new double[rows];
+				} else {
+					codes[a] = new int[rows];
+				}
+				// a mapping can not exceed 2GB, so large columns are copied window by window
+				int row = 0;
+				while( row < rows ) {
+					int count = Math.min( rows - row, WINDOW_SIZE / width );
+					MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, position + (long) row * width, (long) count * width );
+					buffer.order( ByteOrder.LITTLE_ENDIAN );
+					if( attributes[a].isNumeric() ) {
+						buffer.asDoubleBuffer().get( numeric[a], row, count );
+					} else {
+						buffer.asIntBuffer().get( codes[a], row, count );
+					}
+					row += count;
+				}
+				position = align( position + length );
+			}
+			ArffHeader header = new ArffHeader( relation.length() == 0 ? null : relation, attributes, dataOffset );
+			return new ArffDataset( header, rows, numeric, codes, dictionaries );
+		} catch( RuntimeException e ) {
+			// negative sizes and unknown types of a corrupt file
+			throw new IOException( "Corrupt columnar file: " + e.getMessage() );
+		} finally {
+			file.close();
+		}
+	}
+
+	private static void readFully( FileChannel channel, ByteBuffer buffer, long position ) throws IOException {
+		while( buffer.hasRemaining() ) {
+			int read = channel.read( buffer, position );
+			if( read < 0 ) {
+				throw new IOException( "Unexpected end of columnar file. " );
+			}
+			position += read;
+		}
+		buffer.flip();
+	}
+
+	private static void flush( FileChannel channel, ByteBuffer buffer ) throws IOException {
+		buffer.flip();
+		while( buffer.hasRemaining() ) {
+			channel.write( buffer );
+		}
+		buffer.clear();
+	}
+
+	private static void pad( FileChannel channel, ByteBuffer buffer ) throws IOException {
+		long position = channel.position();
+		if( position != align( position ) ) {
+			buffer.put( new byte[(int) ( align( position ) - position )] );
+			flush( channel, buffer );
+		}
+	}
+
+	private static long align( long position ) {
+		return ( position + 7 ) & ~7L;
+	}
+
+	// string values can exceed the 64kB limit of writeUTF
+	private static void writeLongUTF( DataOutputStream out, String value ) throws IOException {
+		byte[] bytes = value.getBytes( ByteDictionary.UTF8 );
+		out.writeInt( bytes.length );
+		out.write( bytes );
+	}
+
+	private static String readLongUTF( DataInputStream in ) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully( bytes );
+		return new String( bytes, ByteDictionary.UTF8 );
+	}
+}
@@ -63,6 +63,21 @@ public class Conversion {
 		return result;
 	}
 	
+	/**
+	 * Parses a numeric value, e.g., of a quality or an evaluation measure
+	 * 
+	 * @param value - the string to parse, may be null
+	 * @return the value, or NaN if it is missing or not a number
+	 */
+	public static double stringToDouble( String value ) {
+		if( value == null ) return Double.NaN;
+		try {
+			return Double.parseDouble( value );
+		} catch( NumberFormatException e ) {
+			return Double.NaN;
+		}
+	}
+	
 	/**
 	 * Reads a file and stores the content in a string
 	 * 
@@ -82,6 +97,23 @@ public class Conversion {
 		return sb.toString();
 	}
 	
+	/**
+	 * Moves a file to its target, e.g., a completely written temporary file
+	 * to its final name. Where a rename replaces an existing file (POSIX), the
+	 * target is not deleted first, so that readers never find it missing; on
+	 * other platforms an existing target is deleted and the rename retried.
+	 * 
+	 * @param source - The file to move, in the same directory as the target
+	 * @param target - The file to replace
+	 * @return Whether the file was moved. If not, the source is left as is.
+	 */
+	public static boolean replaceFile( File source, File target ) {
+		if( source.renameTo( target ) ) {
+			return true;
+		}
+		return target.exists() && target.delete() && source.renameTo( target );
+	}
+	
 	public static void log( String status, String action, String message ) {
 		log( status, action, message, System.err );
 	}
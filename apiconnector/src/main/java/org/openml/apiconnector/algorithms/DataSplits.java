@@ -0,0 +1,333 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.openml.apiconnector.settings.Settings;
+
+/**
+ * The data splits of a task, indexed by repeat, fold, sample and type (e.g.,
+ * TRAIN or TEST). Each combination maps to the row ids of the data set that
+ * belong to it, in the order of the splits file.
+ *
+ * The index is built in one pass over the splits file and stored next to it
+ * (with suffix .index), so that later loads do not scan the file again.
+ */
+public class DataSplits {
+
+	public static final String SUFFIX = ".index";
+
+	public static final String TRAIN = "TRAIN";
+	public static final String TEST = "TEST";
+
+	private static final int MAGIC = 0x4f4d4c53; // OMLS
+	private static final int VERSION = 1;
+
+	private final int numRepeats;
+	private final int numFolds;
+	private final int numSamples;
+	private final String[] types;
+	private final int[][] rowIds;
+
+	/**
+	 * @param numRepeats - The number of repeats
+	 * @param numFolds - The number of folds
+	 * @param numSamples - The number of samples (1 if the splits have no samples)
+	 * @param types - The types of rows, e.g., TRAIN and TEST
+	 * @param rowIds - The row ids per combination, in the order of index( repeat, fold, sample, type )
+	 */
+	public DataSplits( int numRepeats, int numFolds, int numSamples, String[] types, int[][] rowIds ) {
+		this.numRepeats = numRepeats;
+		this.numFolds = numFolds;
+		this.numSamples = numSamples;
+		this.types = types;
+		this.rowIds = rowIds;
+	}
+
+	/**
+	 * Loads the index of a (cached) splits file, building it if it is absent
+	 * or belongs to another version of the file.
+	 *
+	 * @param splits - The splits ARFF file, as returned by getDataSplits
+	 * @return The index
+	 * @throws IOException
+	 */
+	public static DataSplits load( File splits ) throws IOException {
+		String md5 = ChecksumIndex.digest( splits );
+		File index = indexFile( splits );
+		if( index.exists() ) {
+			try {
+				DataSplits result = read( index, md5 );
+				if( result != null ) {
+					return result;
+				}
+			} catch( IOException e ) {
+				Conversion.log( "WARNING", "Data Splits", "Could not read " + index.getAbsolutePath() + ": " + e.getMessage() );
+			}
+		}
+
+		DataSplits result = build( ArffReader.read( splits ) );
+		if( Settings.CACHE_ALLOWED ) {
+			try {
+				result.write( index, md5 );
+			} catch( IOException e ) {
+				Conversion.log( "WARNING", "Data Splits", "Could not write " + index.getAbsolutePath() + ": " + e.getMessage() );
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return The location of the index belonging to a splits file
+	 */
+	public static File indexFile( File splits ) {
+		return new File( splits.getAbsolutePath() + SUFFIX );
+	}
+
+	/**
+	 * Builds the index from a parsed splits file, which has the attributes
+	 * type (nominal), rowid, repeat, fold and optionally sample.
+	 *
+	 * @param splits - The parsed splits file
+	 * @return The index
+	 * @throws IOException - When a required attribute is missing
+	 */
+	public static DataSplits build( ArffDataset splits ) throws IOException {
+		ArffHeader header = splits.getHeader();
+		int[] types = codes( splits, "type" );
+		int[] rowid = values( splits, "rowid" );
+		int[] repeat = values( splits, "repeat" );
+		int[] fold = values( splits, "fold" );
+		int[] sample = header.indexOf( "sample" ) < 0 ? new int[splits.numInstances()] : values( splits, "sample" );
+		String[] typeNames = splits.getDictionary( header.indexOf( "type" ) );
+
+		int numRepeats = max( repeat ) + 1;
+		int numFolds = max( fold ) + 1;
+		int numSamples = max( sample ) + 1;
+		int[] counts = new int[numRepeats * numFolds * numSamples * typeNames.length];
+		int[] keys = new int[splits.numInstances()];
+		for( int i = 0; i < keys.length; ++i ) {
+			if( types[i] == ArffDataset.MISSING_CODE ) {
+				throw new IOException( "Missing type in row " + ( i + 1 ) + " of the splits file. " );
+			}
+			keys[i] = index( repeat[i], fold[i], sample[i], types[i], numFolds, numSamples, typeNames.length );
+			counts[keys[i]] += 1;
+		}
+
+		int[][] rowIds = new int[counts.length][];
+		for( int key = 0; key < counts.length; ++key ) {
+			rowIds[key] = new int[counts[key]];
+			counts[key] = 0;
+		}
+		for( int i = 0; i < keys.length; ++i ) {
+			rowIds[keys[i]][counts[keys[i]]++] = rowid[i];
+		}
+		return new DataSplits( numRepeats, numFolds, numSamples, typeNames, rowIds );
+	}
+
+	public int numRepeats() {
+		return numRepeats;
+	}
+
+	public int numFolds() {
+		return numFolds;
+	}
+
+	public int numSamples() {
+		return numSamples;
+	}
+
+	public String[] getTypes() {
+		return types;
+	}
+
+	/**
+	 * @param type - The type of rows, e.g., TRAIN or TEST
+	 * @return The row ids of the combination. Not a copy.
+	 * @throws IllegalArgumentException - When the type does not occur in the splits
+	 */
+	public int[] get( int repeat, int fold, int sample, String type ) {
+		for( int t = 0; t < types.length; ++t ) {
+			if( types[t].equals( type ) ) {
+				if( repeat < 0 || repeat >= numRepeats || fold < 0 || fold >= numFolds || sample < 0 || sample >= numSamples ) {
+					throw new IndexOutOfBoundsException( "No split for repeat " + repeat + ", fold " + fold + ", sample " + sample + ". " );
+				}
+				return rowIds[index( repeat, fold, sample, t, numFolds, numSamples, types.length )];
+			}
+		}
+		throw new IllegalArgumentException( "Type " + type + " does not occur in the splits. " );
+	}
+
+	/**
+	 * @return The row ids of the training set of the combination. Not a copy.
+	 */
+	public int[] getTrain( int repeat, int fold, int sample ) {
+		return get( repeat, fold, sample, TRAIN );
+	}
+
+	/**
+	 * @return The row ids of the test set of the combination. Not a copy.
+	 */
+	public int[] getTest( int repeat, int fold, int sample ) {
+		return get( repeat, fold, sample, TEST );
+	}
+
+	/**
+	 * Writes the index, under a temporary name that is renamed when complete.
+	 *
+	 * @param index - The index file
+	 * @param md5 - The hash of the splits file the index belongs to
+	 */
+	public void write( File index, String md5 ) throws IOException {
+		ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream( headerBytes );
+		out.writeInt( MAGIC );
+		out.writeInt( VERSION );
+		out.writeUTF( md5 );
+		out.writeInt( numRepeats );
+		out.writeInt( numFolds );
+		out.writeInt( numSamples );
+		out.writeInt( types.length );
+		for( String type : types ) {
+			out.writeUTF( type );
+		}
+		for( int[] ids : rowIds ) {
+			out.writeInt( ids.length );
+		}
+		out.close();
+
+		File temp = new File( index.getAbsolutePath() + ".tmp" );
+		RandomAccessFile file = new RandomAccessFile( temp, "rw" );
+		try {
+			file.setLength( 0 );
+			FileChannel channel = file.getChannel();
+			ByteBuffer length = ByteBuffer.allocate( 4 ).order( ByteOrder.LITTLE_ENDIAN );
+			length.putInt( headerBytes.size() ).flip();
+			channel.write( length );
+			channel.write( ByteBuffer.wrap( headerBytes.toByteArray() ) );
+			for( int[] ids : rowIds ) {
+				ByteBuffer buffer = ByteBuffer.allocate( ids.length * 4 ).order( ByteOrder.LITTLE_ENDIAN );
+				buffer.asIntBuffer().put( ids );
+				while( buffer.hasRemaining() ) {
+					channel.write( buffer );
+				}
+			}
+		} finally {
+			file.close();
+		}
+		if( Conversion.replaceFile( temp, index ) == false ) {
+			temp.delete();
+			throw new IOException( "Could not rename " + temp.getAbsolutePath() );
+		}
+	}
+
+	/**
+	 * @param index - The index file
+	 * @param md5 - The hash of the current splits file
+	 * @return The index, or null if it belongs to another version of the splits file
+	 * @throws IOException - When the file is not a valid index
+	 */
+	public static DataSplits read( File index, String md5 ) throws IOException {
+		RandomAccessFile file = new RandomAccessFile( index, "r" );
+		try {
+			FileChannel channel = file.getChannel();
+			MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+			buffer.order( ByteOrder.LITTLE_ENDIAN );
+			byte[] headerBytes = new byte[buffer.getInt()];
+			buffer.get( headerBytes );
+			DataInputStream in = new DataInputStream( new ByteArrayInputStream( headerBytes ) );
+			if( in.readInt() != MAGIC ) {
+				throw new IOException( "Not a splits index. " );
+			}
+			if( in.readInt() != VERSION || in.readUTF().equals( md5 ) == false ) {
+				return null;
+			}
+			int numRepeats = in.readInt();
+			int numFolds = in.readInt();
+			int numSamples = in.readInt();
+			String[] types = new String[in.readInt()];
+			for( int i = 0; i < types.length; ++i ) {
+				types[i] = in.readUTF();
+			}
+			int[][] rowIds = new int[numRepeats * numFolds * numSamples * types.length][];
+			for( int key = 0; key < rowIds.length; ++key ) {
+				rowIds[key] = new int[in.readInt()];
+			}
+			IntBuffer ints = buffer.asIntBuffer();
+			for( int[] ids : rowIds ) {
+				ints.get( ids );
+			}
+			return new DataSplits( numRepeats, numFolds, numSamples, types, rowIds );
+		} catch( RuntimeException e ) {
+			// buffer under flows and negative sizes of a truncated or corrupt file
+			throw new IOException( "Corrupt splits index: " + e.getMessage() );
+		} finally {
+			file.close();
+		}
+	}
+
+	private static int index( int repeat, int fold, int sample, int type, int numFolds, int numSamples, int numTypes ) {
+		return ( ( repeat * numFolds + fold ) * numSamples + sample ) * numTypes + type;
+	}
+
+	private static int[] codes( ArffDataset splits, String name ) throws IOException {
+		int attribute = splits.getHeader().indexOf( name );
+		if( attribute < 0 || splits.getHeader().getAttribute( attribute ).getType() != ArffAttribute.Type.NOMINAL ) {
+			throw new IOException( "Splits file does not have a nominal attribute " + name + ". " );
+		}
+		return splits.getCodes( attribute );
+	}
+
+	private static int[] values( ArffDataset splits, String name ) throws IOException {
+		int attribute = splits.getHeader().indexOf( name );
+		if( attribute < 0 || splits.getHeader().getAttribute( attribute ).isNumeric() == false ) {
+			throw new IOException( "Splits file does not have a numeric attribute " + name + ". " );
+		}
+		double[] column = splits.getNumericColumn( attribute );
+		int[] result = new int[column.length];
+		for( int i = 0; i < column.length; ++i ) {
+			if( Double.isNaN( column[i] ) || column[i] < 0 ) {
+				throw new IOException( "Invalid " + name + " in row " + ( i + 1 ) + " of the splits file. " );
+			}
+			result[i] = (int) column[i];
+		}
+		return result;
+	}
+
+	private static int max( int[] values ) {
+		int max = 0;
+		for( int value : values ) {
+			max = Math.max( max, value );
+		}
+		return max;
+	}
+}
@@ -56,6 +56,10 @@ public class Hashing {
 	 */
 	public static String md5(File input) throws IOException {
 		FileInputStream fis = new FileInputStream(input);
-		return org.apache.commons.codec.digest.DigestUtils.md5Hex(fis);
+		try {
+			return org.apache.commons.codec.digest.DigestUtils.md5Hex(fis);
+		} finally {
+			fis.close();
+		}
 	}
 }
@@ -0,0 +1,124 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread safe, size bounded map that evicts the least recently used entry
+ * when full. Keeps track of hits, misses and evictions.
+ */
+public class LruCache<K, V> {
+
+	private final LinkedHashMap<K, V> entries;
+	private int capacity;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/**
+	 * @param capacity - Maximal number of entries. A capacity of 0 disables the cache.
+	 */
+	public LruCache( int capacity ) {
+		this.capacity = capacity;
+		// access order, so iteration starts at the least recently used entry
+		this.entries = new LinkedHashMap<K, V>( 16, 0.75f, true ) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<K, V> eldest ) {
+				if( size() > LruCache.this.capacity ) {
+					evictions += 1;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * @param key - The key to look up
+	 * @return The cached value, or null if it is not in the cache
+	 */
+	public synchronized V get( K key ) {
+		V value = entries.get( key );
+		if( value == null ) {
+			misses += 1;
+		} else {
+			hits += 1;
+		}
+		return value;
+	}
+
+	public synchronized void put( K key, V value ) {
+		if( capacity > 0 ) {
+			entries.put( key, value );
+		}
+	}
+
+	public synchronized V remove( K key ) {
+		return entries.remove( key );
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @param capacity - The new maximal number of entries. Shrinking evicts
+	 * the least recently used entries.
+	 */
+	public synchronized void setCapacity( int capacity ) {
+		this.capacity = capacity;
+		Iterator<K> it = entries.keySet().iterator();
+		while( entries.size() > capacity && it.hasNext() ) {
+			it.next();
+			it.remove();
+			evictions += 1;
+		}
+	}
+
+	public synchronized int getCapacity() {
+		return capacity;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "[size: " + entries.size() + "/" + capacity + ", hits: " + hits + ", misses: " + misses + ", evictions: " + evictions + "]";
+	}
+}
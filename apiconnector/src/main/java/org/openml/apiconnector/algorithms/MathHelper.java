@@ -21,7 +21,16 @@ package org.openml.apiconnector.algorithms;
 
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 public class MathHelper {
 
@@ -29,6 +38,14 @@ public class MathHelper {
 	public final static DecimalFormat visualDecimalFormat = new DecimalFormat("#.##", DecimalFormatSymbols.getInstance( Locale.ENGLISH ) );
 	public final static Double EPSILON = 0.00001;
 	
+	/**
+	 * Primitive arrays of at least this length are reduced in parallel
+	 * (when more than one processor is available). 
+	 */
+	public static int PARALLEL_THRESHOLD = 1 << 18;
+	
+	private static ExecutorService reducer = null;
+	
 	/**
 	 * Calculates the standard deviation of a population. 
 	 * 
@@ -76,18 +93,444 @@ public class MathHelper {
 	 * Returns the index of the maximal value in a double[] 
 	 * 
 	 * @param array
-	 * @param naturalNumbers
-	 * @return The index of the highest number in the array
+	 * @param naturalNumbers - if true, only values above zero are considered
+	 * @return The index of the highest number in the array, or -1 if no value qualifies
 	 */
 	public static int argmax( double[] array, boolean naturalNumbers ) {
+		int best = argmax( array );
+		if( best >= 0 && naturalNumbers && array[best] <= 0 ) {
+			return -1;
+		}
+		return best;
+	}
+	
+	/**
+	 * Returns the sum of values in an array, using compensated (Kahan) 
+	 * summation, so that the rounding error does not grow with the length.
+	 * 
+	 * @param array
+	 * @return The sum of values in the array
+	 */
+	public static double sum( final double[] array ) {
+		double[] total = new double[2];
+		for( double[] partial : reduce( array.length, new Reduction() {
+			public double[] reduce( int from, int to ) {
+				double sum = 0;
+				double compensation = 0;
+				for( int i = from; i < to; ++i ) {
+					double y = array[i] - compensation;
+					double t = sum + y;
+					compensation = ( t - sum ) - y;
+					sum = t;
+				}
+				return new double[] { sum, -compensation };
+			}
+		} ) ) {
+			total[0] += partial[0];
+			total[1] += partial[1];
+		}
+		return total[0] + total[1];
+	}
+	
+	/**
+	 * Returns the sum of values in an array, accumulated in double precision 
+	 * using compensated (Kahan) summation.
+	 * 
+	 * @param array
+	 * @return The sum of values in the array
+	 */
+	public static double sum( final float[] array ) {
+		double[] total = new double[2];
+		for( double[] partial : reduce( array.length, new Reduction() {
+			public double[] reduce( int from, int to ) {
+				double sum = 0;
+				double compensation = 0;
+				for( int i = from; i < to; ++i ) {
+					double y = array[i] - compensation;
+					double t = sum + y;
+					compensation = ( t - sum ) - y;
+					sum = t;
+				}
+				return new double[] { sum, -compensation };
+			}
+		} ) ) {
+			total[0] += partial[0];
+			total[1] += partial[1];
+		}
+		return total[0] + total[1];
+	}
+	
+	/**
+	 * @param array
+	 * @return The mean of the array, or NaN if it is empty
+	 */
+	public static double mean( double[] array ) {
+		return array.length == 0 ? Double.NaN : sum( array ) / array.length;
+	}
+	
+	/**
+	 * @param array
+	 * @return The mean of the array, or NaN if it is empty
+	 */
+	public static double mean( float[] array ) {
+		return array.length == 0 ? Double.NaN : sum( array ) / array.length;
+	}
+	
+	/**
+	 * Calculates the variance in a single pass. Values are shifted by the 
+	 * first value, which avoids the cancellation of the textbook formula 
+	 * when the mean is large compared to the spread. 
+	 * 
+	 * @param array
+	 * @param sample - whether to divide by n - 1 (sample) instead of n (population)
+	 * @return The variance of the array
+	 */
+	public static double variance( final double[] array, boolean sample ) {
+		if( array.length <= 1 ) { return array.length == 0 ? Double.NaN : 0.0; }
+		final double shift = array[0];
+		double sum = 0;
+		double sumOfSquares = 0;
+		for( double[] partial : reduce( array.length, new Reduction() {
+			public double[] reduce( int from, int to ) {
+				double sum = 0;
+				double sumOfSquares = 0;
+				for( int i = from; i < to; ++i ) {
+					double d = array[i] - shift;
+					sum += d;
+					sumOfSquares += d * d;
+				}
+				return new double[] { sum, sumOfSquares };
+			}
+		} ) ) {
+			sum += partial[0];
+			sumOfSquares += partial[1];
+		}
+		return variance( array.length, sum, sumOfSquares, sample );
+	}
+	
+	/**
+	 * Calculates the variance in a single pass, see variance( double[], boolean ). 
+	 * 
+	 * @param array
+	 * @param sample - whether to divide by n - 1 (sample) instead of n (population)
+	 * @return The variance of the array
+	 */
+	public static double variance( final float[] array, boolean sample ) {
+		if( array.length <= 1 ) { return array.length == 0 ? Double.NaN : 0.0; }
+		final double shift = array[0];
+		double sum = 0;
+		double sumOfSquares = 0;
+		for( double[] partial : reduce( array.length, new Reduction() {
+			public double[] reduce( int from, int to ) {
+				double sum = 0;
+				double sumOfSquares = 0;
+				for( int i = from; i < to; ++i ) {
+					double d = array[i] - shift;
+					sum += d;
+					sumOfSquares += d * d;
+				}
+				return new double[] { sum, sumOfSquares };
+			}
+		} ) ) {
+			sum += partial[0];
+			sumOfSquares += partial[1];
+		}
+		return variance( array.length, sum, sumOfSquares, sample );
+	}
+	
+	private static double variance( int n, double shiftedSum, double shiftedSumOfSquares, boolean sample ) {
+		double variance = ( shiftedSumOfSquares - shiftedSum * shiftedSum / n ) / ( sample ? n - 1 : n );
+		return Math.max( 0.0, variance );
+	}
+	
+	/**
+	 * @param array
+	 * @param sample - whether to calculate the sample (n - 1) or population (n) standard deviation
+	 * @return The standard deviation of the array
+	 */
+	public static double standard_deviation( double[] array, boolean sample ) {
+		return Math.sqrt( variance( array, sample ) );
+	}
+	
+	/**
+	 * @param array
+	 * @param sample - whether to calculate the sample (n - 1) or population (n) standard deviation
+	 * @return The standard deviation of the array
+	 */
+	public static double standard_deviation( float[] array, boolean sample ) {
+		return Math.sqrt( variance( array, sample ) );
+	}
+	
+	/**
+	 * @param array
+	 * @return The minimal value of the array (NaN if it contains NaN), or NaN if it is empty
+	 */
+	public static double min( final double[] array ) {
+		if( array.length == 0 ) { return Double.NaN; }
+		double min = Double.POSITIVE_INFINITY;
+		for( double[] partial : reduce( array.length, new Reduction() {
+			public double[] reduce( int from, int to ) {
+				double min = Double.POSITIVE_INFINITY;
+				for( int i = from; i < to; ++i ) {
+					min = Math.min( min, array[i] );
+				}
+				return new double[] { min };
+			}
+		} ) ) {
+			min = Math.min( min, partial[0] );
+		}
+		return min;
+	}
+	
+	/**
+	 * @param array
+	 * @return The maximal value of the array (NaN if it contains NaN), or NaN if it is empty
+	 */
+	public static double max( final double[] array ) {
+		if( array.length == 0 ) { return Double.NaN; }
+		double max = Double.NEGATIVE_INFINITY;
+		for( double[] partial : reduce( array.length, new Reduction() {
+			public double[] reduce( int from, int to ) {
+				double max = Double.NEGATIVE_INFINITY;
+				for( int i = from; i < to; ++i ) {
+					max = Math.max( max, array[i] );
+				}
+				return new double[] { max };
+			}
+		} ) ) {
+			max = Math.max( max, partial[0] );
+		}
+		return max;
+	}
+	
+	/**
+	 * @param array
+	 * @return The minimal value of the array (NaN if it contains NaN), or NaN if it is empty
+	 */
+	public static double min( final float[] array ) {
+		if( array.length == 0 ) { return Double.NaN; }
+		double min = Double.POSITIVE_INFINITY;
+		for( double[] partial : reduce( array.length, new Reduction() {
+			public double[] reduce( int from, int to ) {
+				float min = Float.POSITIVE_INFINITY;
+				for( int i = from; i < to; ++i ) {
+					min = Math.min( min, array[i] );
+				}
+				return new double[] { min };
+			}
+		} ) ) {
+			min = Math.min( min, partial[0] );
+		}
+		return min;
+	}
+	
+	/**
+	 * @param array
+	 * @return The maximal value of the array (NaN if it contains NaN), or NaN if it is empty
+	 */
+	public static double max( final float[] array ) {
+		if( array.length == 0 ) { return Double.NaN; }
+		double max = Double.NEGATIVE_INFINITY;
+		for( double[] partial : reduce( array.length, new Reduction() {
+			public double[] reduce( int from, int to ) {
+				float max = Float.NEGATIVE_INFINITY;
+				for( int i = from; i < to; ++i ) {
+					max = Math.max( max, array[i] );
+				}
+				return new double[] { max };
+			}
+		} ) ) {
+			max = Math.max( max, partial[0] );
+		}
+		return max;
+	}
+	
+	/**
+	 * Returns the index of the maximal value, ignoring NaN values. Of equal 
+	 * values, the first is returned. 
+	 * 
+	 * @param array
+	 * @return The index of the highest number in the array, or -1 if there is none
+	 */
+	public static int argmax( final double[] array ) {
 		int best = -1;
-		double value = (naturalNumbers) ? 0D : Double.MIN_VALUE;
-		for( int i = 0; i < array.length; ++i ) {
-			if(array[i] > value) {
-				value = array[i];
-				best = i;
+		double value = Double.NEGATIVE_INFINITY;
+		for( double[] partial : reduce( array.length, new Reduction() {
+			public double[] reduce( int from, int to ) {
+				int best = -1;
+				double value = Double.NEGATIVE_INFINITY;
+				for( int i = from; i < to; ++i ) {
+					if( array[i] > value || ( best < 0 && array[i] == value ) ) {
+						value = array[i];
+						best = i;
+					}
+				}
+				return new double[] { best, value };
+			}
+		} ) ) {
+			// partials are in order, so strictly greater keeps the first of equal values
+			if( partial[0] >= 0 && ( best < 0 || partial[1] > value ) ) {
+				best = (int) partial[0];
+				value = partial[1];
 			}
 		}
 		return best;
 	}
+	
+	/**
+	 * Returns the index of the maximal value, ignoring NaN values. Of equal 
+	 * values, the first is returned. 
+	 * 
+	 * @param array
+	 * @return The index of the highest number in the array, or -1 if there is none
+	 */
+	public static int argmax( final float[] array ) {
+		int best = -1;
+		double value = Double.NEGATIVE_INFINITY;
+		for( double[] partial : reduce( array.length, new Reduction() {
+			public double[] reduce( int from, int to ) {
+				int best = -1;
+				float value = Float.NEGATIVE_INFINITY;
+				for( int i = from; i < to; ++i ) {
+					if( array[i] > value || ( best < 0 && array[i] == value ) ) {
+						value = array[i];
+						best = i;
+					}
+				}
+				return new double[] { best, value };
+			}
+		} ) ) {
+			if( partial[0] >= 0 && ( best < 0 || partial[1] > value ) ) {
+				best = (int) partial[0];
+				value = partial[1];
+			}
+		}
+		return best;
+	}
+	
+	/**
+	 * Returns a quantile, interpolating linearly between the closest values 
+	 * (like R's default and numpy's "linear" method). 
+	 * 
+	 * @param array - The values; not modified
+	 * @param q - The quantile, between 0 and 1 (e.g., 0.5 for the median)
+	 * @return The quantile, or NaN if the array is empty
+	 */
+	public static double quantile( double[] array, double q ) {
+		return quantiles( array, new double[] { q } )[0];
+	}
+	
+	/**
+	 * Returns several quantiles, sorting (a copy of) the values only once. 
+	 * 
+	 * @param array - The values; not modified
+	 * @param qs - The quantiles, each between 0 and 1
+	 * @return The quantiles, NaN if the array is empty
+	 */
+	public static double[] quantiles( double[] array, double[] qs ) {
+		double[] sorted = Arrays.copyOf( array, array.length );
+		Arrays.sort( sorted );
+		return sortedQuantiles( sorted, qs );
+	}
+	
+	/**
+	 * @param array - The values; not modified
+	 * @param q - The quantile, between 0 and 1 (e.g., 0.5 for the median)
+	 * @return The quantile, or NaN if the array is empty
+	 */
+	public static double quantile( float[] array, double q ) {
+		return quantiles( array, new double[] { q } )[0];
+	}
+	
+	/**
+	 * @param array - The values; not modified
+	 * @param qs - The quantiles, each between 0 and 1
+	 * @return The quantiles, NaN if the array is empty
+	 */
+	public static double[] quantiles( float[] array, double[] qs ) {
+		double[] sorted = new double[array.length];
+		for( int i = 0; i < array.length; ++i ) {
+			sorted[i] = array[i];
+		}
+		Arrays.sort( sorted );
+		return sortedQuantiles( sorted, qs );
+	}
+	
+	private static double[] sortedQuantiles( double[] sorted, double[] qs ) {
+		double[] result = new double[qs.length];
+		for( int i = 0; i < qs.length; ++i ) {
+			if( qs[i] < 0 || qs[i] > 1 ) {
+				throw new IllegalArgumentException( "Quantile should be between 0 and 1: " + qs[i] );
+			}
+			if( sorted.length == 0 ) {
+				result[i] = Double.NaN;
+				continue;
+			}
+			double position = qs[i] * ( sorted.length - 1 );
+			int lower = (int) Math.floor( position );
+			int upper = Math.min( lower + 1, sorted.length - 1 );
+			result[i] = sorted[lower] + ( position - lower ) * ( sorted[upper] - sorted[lower] );
+		}
+		return result;
+	}
+	
+	/**
+	 * Partial result of a reduction over the range [from, to) of an array. 
+	 */
+	private interface Reduction {
+		double[] reduce( int from, int to );
+	}
+	
+	/**
+	 * Applies a reduction to consecutive ranges of an array, in parallel when 
+	 * the array is large enough. 
+	 * 
+	 * @return The partial results, in order of the ranges
+	 */
+	private static List<double[]> reduce( int length, final Reduction reduction ) {
+		List<double[]> partials = new ArrayList<double[]>();
+		int processors = Runtime.getRuntime().availableProcessors();
+		int threshold = PARALLEL_THRESHOLD;
+		// chunks of at least half the threshold, and at least one element
+		int chunks = Math.min( processors, length / Math.max( 1, threshold / 2 ) );
+		if( length < threshold || chunks <= 1 ) {
+			partials.add( reduction.reduce( 0, length ) );
+			return partials;
+		}
+		
+		List<Future<double[]>> futures = new ArrayList<Future<double[]>>();
+		for( int c = 0; c < chunks; ++c ) {
+			final int from = (int) ( (long) length * c / chunks );
+			final int to = (int) ( (long) length * ( c + 1 ) / chunks );
+			futures.add( getReducer().submit( new Callable<double[]>() {
+				public double[] call() {
+					return reduction.reduce( from, to );
+				}
+			} ) );
+		}
+		try {
+			for( Future<double[]> future : futures ) {
+				partials.add( future.get() );
+			}
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException( "Interrupted during reduction. " );
+		} catch( ExecutionException e ) {
+			throw new IllegalStateException( "Reduction failed: " + e.getCause(), e.getCause() );
+		}
+		return partials;
+	}
+	
+	private static synchronized ExecutorService getReducer() {
+		if( reducer == null ) {
+			reducer = Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				public Thread newThread( Runnable r ) {
+					Thread thread = new Thread( r, "OpenML-MathHelper" );
+					thread.setDaemon( true );
+					return thread;
+				}
+			} );
+		}
+		return reducer;
+	}
 }
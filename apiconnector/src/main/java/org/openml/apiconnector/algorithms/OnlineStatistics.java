@@ -0,0 +1,133 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Collects values in a growable double[] and keeps their running mean and
+ * variance (Welford's method), so that these can be read without another
+ * pass over the values. Statistics of separate collections (e.g., from
+ * parallel workers) can be merged.
+ */
+public class OnlineStatistics {
+
+	private double[] values = new double[16];
+	private int count = 0;
+	private double mean = 0;
+	private double m2 = 0; // sum of squared differences from the mean
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	public void add( double value ) {
+		if( count == values.length ) {
+			values = Arrays.copyOf( values, count * 2 );
+		}
+		values[count] = value;
+		count += 1;
+		double delta = value - mean;
+		mean += delta / count;
+		m2 += delta * ( value - mean );
+		min = Math.min( min, value );
+		max = Math.max( max, value );
+	}
+
+	/**
+	 * Adds all values of another collection, combining the statistics without
+	 * revisiting the values.
+	 */
+	public void merge( OnlineStatistics other ) {
+		if( other.count == 0 ) {
+			return;
+		}
+		if( count + other.count > values.length ) {
+			values = Arrays.copyOf( values, Math.max( count + other.count, values.length * 2 ) );
+		}
+		System.arraycopy( other.values, 0, values, count, other.count );
+		int total = count + other.count;
+		double delta = other.mean - mean;
+		mean += delta * other.count / total;
+		m2 += other.m2 + delta * delta * ( (double) count * other.count / total );
+		count = total;
+		min = Math.min( min, other.min );
+		max = Math.max( max, other.max );
+	}
+
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * @return The mean of the values, or NaN if there are none
+	 */
+	public double getMean() {
+		return count == 0 ? Double.NaN : mean;
+	}
+
+	/**
+	 * @param sample - Whether the values are a sample (n - 1 degrees of freedom) rather than the population
+	 * @return The variance of the values
+	 */
+	public double getVariance( boolean sample ) {
+		if( count <= 1 ) {
+			return count == 0 ? Double.NaN : 0.0;
+		}
+		return m2 / ( sample ? count - 1 : count );
+	}
+
+	/**
+	 * @param sample - Whether the values are a sample (n - 1 degrees of freedom) rather than the population
+	 * @return The standard deviation of the values
+	 */
+	public double getStandardDeviation( boolean sample ) {
+		return Math.sqrt( getVariance( sample ) );
+	}
+
+	public double getMin() {
+		return count == 0 ? Double.NaN : min;
+	}
+
+	public double getMax() {
+		return count == 0 ? Double.NaN : max;
+	}
+
+	/**
+	 * @return The value at a position, in order of addition
+	 */
+	public double get( int index ) {
+		if( index >= count ) {
+			throw new IndexOutOfBoundsException( "Index " + index + ", count " + count );
+		}
+		return values[index];
+	}
+
+	/**
+	 * @return A copy of the values, in order of addition
+	 */
+	public double[] getValues() {
+		return Arrays.copyOf( values, count );
+	}
+
+	@Override
+	public String toString() {
+		return "[mean " + MathHelper.defaultDecimalFormat.format( getMean() ) + ", sd " +
+			MathHelper.defaultDecimalFormat.format( getStandardDeviation( true ) ) + ", n " + count + "]";
+	}
+}
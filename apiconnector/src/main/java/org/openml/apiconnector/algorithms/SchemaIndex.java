@@ -0,0 +1,177 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Keeps the headers of cached ARFF files, so that attribute lookups do not
+ * read the file again. Headers are held in memory and, for files in the cache
+ * directory, persisted next to the ARFF file (with suffix .schema), keyed by
+ * the size and modification time of the file. All tasks on the same data set
+ * thus share a single header read, and a lookup never reads beyond the header.
+ *
+ * Attributes that can not be parsed (e.g., relational attributes) are left
+ * out, so these headers are meant for lookups by name.
+ */
+public class SchemaIndex {
+
+	public static final String SUFFIX = ".schema";
+
+	private static final int MAGIC = 0x4f4d4c48; // OMLH
+	private static final int VERSION = 2;
+
+	private static final LruCache<String, ArffHeader> headers = new LruCache<String, ArffHeader>( 256 );
+
+	/**
+	 * @param arff - A (cached) ARFF file
+	 * @return The header of the file
+	 * @throws IOException - When the file can not be read or the header is not valid
+	 */
+	public static ArffHeader get( File arff ) throws IOException {
+		String fingerprint = fingerprint( arff );
+		String key = arff.getAbsolutePath() + "@" + fingerprint;
+		ArffHeader header = headers.get( key );
+		if( header != null ) {
+			return header;
+		}
+
+		File schema = schemaFile( arff );
+		if( schema.exists() ) {
+			try {
+				header = read( schema, fingerprint );
+			} catch( IOException e ) {
+				Conversion.log( "WARNING", "Schema Index", "Could not read " + schema.getAbsolutePath() + ": " + e.getMessage() );
+			}
+		}
+		if( header == null ) {
+			header = ArffReader.readHeader( arff, true );
+			if( ChecksumIndex.isCached( arff ) ) {
+				try {
+					write( schema, fingerprint, header );
+				} catch( IOException e ) {
+					Conversion.log( "WARNING", "Schema Index", "Could not write " + schema.getAbsolutePath() + ": " + e.getMessage() );
+				}
+			}
+		}
+		headers.put( key, header );
+		return header;
+	}
+
+	/**
+	 * @return The size and modification time of a file, which identify its version
+	 */
+	public static String fingerprint( File arff ) {
+		return arff.length() + ":" + arff.lastModified();
+	}
+
+	/**
+	 * @return The location of the schema belonging to an ARFF file
+	 */
+	public static File schemaFile( File arff ) {
+		return new File( arff.getAbsolutePath() + SUFFIX );
+	}
+
+	/**
+	 * @return The headers held in memory
+	 */
+	public static LruCache<String, ArffHeader> getMemoryCache() {
+		return headers;
+	}
+
+	/**
+	 * Writes a header, under a temporary name that is renamed when complete.
+	 */
+	public static void write( File schema, String fingerprint, ArffHeader header ) throws IOException {
+		File temp = new File( schema.getAbsolutePath() + ".tmp" );
+		DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( temp ) ) );
+		try {
+			out.writeInt( MAGIC );
+			out.writeInt( VERSION );
+			out.writeUTF( fingerprint );
+			out.writeUTF( header.getRelation() == null ? "" : header.getRelation() );
+			out.writeLong( header.getDataOffset() );
+			out.writeInt( header.numAttributes() );
+			for( ArffAttribute attribute : header.getAttributes() ) {
+				out.writeUTF( attribute.getName() );
+				out.writeByte( attribute.getType().ordinal() );
+				out.writeUTF( attribute.getDateFormat() == null ? "" : attribute.getDateFormat() );
+				String[] values = attribute.getValues() == null ? new String[0] : attribute.getValues();
+				out.writeInt( values.length );
+				for( String value : values ) {
+					out.writeUTF( value );
+				}
+			}
+		} finally {
+			out.close();
+		}
+		if( Conversion.replaceFile( temp, schema ) == false ) {
+			temp.delete();
+			throw new IOException( "Could not rename " + temp.getAbsolutePath() );
+		}
+	}
+
+	/**
+	 * @param schema - The schema file
+	 * @param fingerprint - The fingerprint of the current ARFF file
+	 * @return The header, or null if the schema belongs to another version of the file
+	 * @throws IOException - When the file is not a valid schema
+	 */
+	public static ArffHeader read( File schema, String fingerprint ) throws IOException {
+		DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( schema ) ) );
+		try {
+			if( in.readInt() != MAGIC ) {
+				throw new IOException( "Not a schema file. " );
+			}
+			if( in.readInt() != VERSION || in.readUTF().equals( fingerprint ) == false ) {
+				return null;
+			}
+			String relation = in.readUTF();
+			long dataOffset = in.readLong();
+			ArffAttribute[] attributes = new ArffAttribute[in.readInt()];
+			for( int i = 0; i < attributes.length; ++i ) {
+				String name = in.readUTF();
+				int type = in.readByte();
+				if( type < 0 || type >= ArffAttribute.Type.values().length ) {
+					throw new IOException( "Unknown attribute type " + type + ". " );
+				}
+				String dateFormat = in.readUTF();
+				String[] values = new String[in.readInt()];
+				for( int j = 0; j < values.length; ++j ) {
+					values[j] = in.readUTF();
+				}
+				ArffAttribute.Type attributeType = ArffAttribute.Type.values()[type];
+				attributes[i] = new ArffAttribute( i, name, attributeType,
+					attributeType == ArffAttribute.Type.NOMINAL ? values : null,
+					attributeType == ArffAttribute.Type.DATE ? dateFormat : null );
+			}
+			return new ArffHeader( relation.length() == 0 ? null : relation, attributes, dataOffset );
+		} finally {
+			in.close();
+		}
+	}
+}
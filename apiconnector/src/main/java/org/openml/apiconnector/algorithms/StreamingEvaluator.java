@@ -0,0 +1,337 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.algorithms;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openml.apiconnector.models.Metric;
+import org.openml.apiconnector.models.MetricCollector;
+import org.openml.apiconnector.models.MetricScore;
+
+/**
+ * Evaluates predictions one row at a time, keeping only primitive
+ * accumulators per repeat, fold and sample. Memory depends on the number of
+ * classes, not on the number of predictions.
+ *
+ * For classification tasks it calculates predictive accuracy, kappa, the
+ * confusion matrix, mean absolute and root mean squared error (over the
+ * class confidences) and the area under the ROC curve. The latter is
+ * calculated from a histogram of confidences per class, which is exact when
+ * confidences fall on bin boundaries (e.g., leaf frequencies) and otherwise
+ * differs at most the fraction of pairs that share a bin.
+ *
+ * For regression tasks it calculates mean absolute and root mean squared error.
+ */
+public class StreamingEvaluator {
+
+	public static final int DEFAULT_BINS = 1000;
+
+	public static final Metric PREDICTIVE_ACCURACY = metric( "predictive_accuracy" );
+	public static final Metric KAPPA = metric( "kappa" );
+	public static final Metric CONFUSION_MATRIX = metric( "confusion_matrix" );
+	public static final Metric AREA_UNDER_ROC_CURVE = metric( "area_under_roc_curve" );
+	public static final Metric MEAN_ABSOLUTE_ERROR = metric( "mean_absolute_error" );
+	public static final Metric ROOT_MEAN_SQUARED_ERROR = metric( "root_mean_squared_error" );
+
+	private final int numClasses;
+	private final int bins;
+	private final Map<String, Accumulator> accumulators = new LinkedHashMap<String, Accumulator>();
+
+	// rows of a prediction file are grouped by fold, so the last accumulator is usually the right one
+	private int lastRepeat = -1;
+	private int lastFold = -1;
+	private int lastSample = -1;
+	private Accumulator last = null;
+
+	/**
+	 * Creates an evaluator for regression predictions.
+	 */
+	public StreamingEvaluator() {
+		this( 0, 0 );
+	}
+
+	/**
+	 * Creates an evaluator for classification predictions.
+	 *
+	 * @param numClasses - The number of classes
+	 */
+	public StreamingEvaluator( int numClasses ) {
+		this( numClasses, DEFAULT_BINS );
+	}
+
+	/**
+	 * @param numClasses - The number of classes, or 0 for regression
+	 * @param bins - The number of confidence bins per class used for the area under the ROC curve
+	 */
+	public StreamingEvaluator( int numClasses, int bins ) {
+		this.numClasses = numClasses;
+		this.bins = bins;
+	}
+
+	/**
+	 * Adds a classification prediction, predicting the class with the highest confidence.
+	 *
+	 * @param actual - The index of the correct class, or -1 if it is missing
+	 * @param confidences - The confidence per class
+	 */
+	public void add( int repeat, int fold, int sample, int actual, double[] confidences ) {
+		int predicted = 0;
+		for( int i = 1; i < numClasses; ++i ) {
+			if( confidences[i] > confidences[predicted] ) {
+				predicted = i;
+			}
+		}
+		add( repeat, fold, sample, actual, predicted, confidences );
+	}
+
+	/**
+	 * Adds a classification prediction.
+	 *
+	 * @param actual - The index of the correct class, or -1 if it is missing
+	 * @param predicted - The index of the predicted class
+	 * @param confidences - The confidence per class
+	 */
+	public void add( int repeat, int fold, int sample, int actual, int predicted, double[] confidences ) {
+		if( numClasses == 0 ) {
+			throw new IllegalStateException( "Evaluator was created for regression. " );
+		}
+		if( actual < 0 ) {
+			return;
+		}
+		accumulator( repeat, fold, sample ).add( actual, predicted, confidences );
+	}
+
+	/**
+	 * Adds a regression prediction.
+	 *
+	 * @param actual - The correct value, or NaN if it is missing
+	 * @param predicted - The predicted value
+	 */
+	public void add( int repeat, int fold, int sample, double actual, double predicted ) {
+		if( numClasses > 0 ) {
+			throw new IllegalStateException( "Evaluator was created for classification. " );
+		}
+		if( Double.isNaN( actual ) ) {
+			return;
+		}
+		accumulator( repeat, fold, sample ).add( actual, predicted );
+	}
+
+	/**
+	 * @return The repeat, fold and sample of all combinations that received predictions, in order of appearance
+	 */
+	public List<int[]> getFolds() {
+		List<int[]> result = new ArrayList<int[]>();
+		for( Accumulator accumulator : accumulators.values() ) {
+			result.add( new int[] { accumulator.repeat, accumulator.fold, accumulator.sample } );
+		}
+		return result;
+	}
+
+	/**
+	 * @return The scores of a single repeat, fold and sample, or null if it received no predictions
+	 */
+	public Map<Metric, MetricScore> getScores( int repeat, int fold, int sample ) {
+		Accumulator accumulator = accumulators.get( key( repeat, fold, sample ) );
+		return accumulator == null ? null : accumulator.scores();
+	}
+
+	/**
+	 * @return The scores over all predictions
+	 */
+	public Map<Metric, MetricScore> getGlobalScores() {
+		Accumulator total = new Accumulator( -1, -1, -1 );
+		for( Accumulator accumulator : accumulators.values() ) {
+			total.merge( accumulator );
+		}
+		return total.scores();
+	}
+
+	/**
+	 * @return A collector with the scores of every repeat, fold and sample
+	 */
+	public MetricCollector collect() {
+		MetricCollector collector = new MetricCollector();
+		for( Accumulator accumulator : accumulators.values() ) {
+			collector.add( accumulator.scores() );
+		}
+		return collector;
+	}
+
+	private Accumulator accumulator( int repeat, int fold, int sample ) {
+		if( last == null || repeat != lastRepeat || fold != lastFold || sample != lastSample ) {
+			String key = key( repeat, fold, sample );
+			last = accumulators.get( key );
+			if( last == null ) {
+				last = new Accumulator( repeat, fold, sample );
+				accumulators.put( key, last );
+			}
+			lastRepeat = repeat;
+			lastFold = fold;
+			lastSample = sample;
+		}
+		return last;
+	}
+
+	private static String key( int repeat, int fold, int sample ) {
+		return repeat + "_" + fold + "_" + sample;
+	}
+
+	private static Metric metric( String name ) {
+		return new Metric( name, "openml.evaluation." + name + "(1.0)" );
+	}
+
+	private class Accumulator {
+		final int repeat;
+		final int fold;
+		final int sample;
+		long count = 0;
+		double sumAbsoluteError = 0;
+		double sumSquaredError = 0;
+		final long[][] confusion;
+		final long[][] positives;
+		final long[][] negatives;
+
+		Accumulator( int repeat, int fold, int sample ) {
+			this.repeat = repeat;
+			this.fold = fold;
+			this.sample = sample;
+			confusion = new long[numClasses][numClasses];
+			positives = new long[numClasses][bins];
+			negatives = new long[numClasses][bins];
+		}
+
+		void add( int actual, int predicted, double[] confidences ) {
+			count += 1;
+			confusion[actual][predicted] += 1;
+			double absoluteError = 0;
+			double squaredError = 0;
+			for( int c = 0; c < numClasses; ++c ) {
+				double confidence = Double.isNaN( confidences[c] ) ? 0.0 : confidences[c];
+				double error = ( c == actual ? 1.0 : 0.0 ) - confidence;
+				absoluteError += Math.abs( error );
+				squaredError += error * error;
+				int bin = (int) ( Math.min( 1.0, Math.max( 0.0, confidence ) ) * bins );
+				if( bin == bins ) {
+					bin -= 1;
+				}
+				if( c == actual ) {
+					positives[c][bin] += 1;
+				} else {
+					negatives[c][bin] += 1;
+				}
+			}
+			sumAbsoluteError += absoluteError / numClasses;
+			sumSquaredError += squaredError / numClasses;
+		}
+
+		void add( double actual, double predicted ) {
+			double error = actual - predicted;
+			count += 1;
+			sumAbsoluteError += Math.abs( error );
+			sumSquaredError += error * error;
+		}
+
+		void merge( Accumulator other ) {
+			count += other.count;
+			sumAbsoluteError += other.sumAbsoluteError;
+			sumSquaredError += other.sumSquaredError;
+			for( int c = 0; c < numClasses; ++c ) {
+				for( int d = 0; d < numClasses; ++d ) {
+					confusion[c][d] += other.confusion[c][d];
+				}
+				for( int b = 0; b < bins; ++b ) {
+					positives[c][b] += other.positives[c][b];
+					negatives[c][b] += other.negatives[c][b];
+				}
+			}
+		}
+
+		Map<Metric, MetricScore> scores() {
+			Map<Metric, MetricScore> scores = new LinkedHashMap<Metric, MetricScore>();
+			if( count == 0 ) {
+				return scores;
+			}
+			scores.put( MEAN_ABSOLUTE_ERROR, new MetricScore( sumAbsoluteError / count, count ) );
+			scores.put( ROOT_MEAN_SQUARED_ERROR, new MetricScore( Math.sqrt( sumSquaredError / count ), count ) );
+			if( numClasses == 0 ) {
+				return scores;
+			}
+
+			long correct = 0;
+			double expected = 0;
+			double[][] matrix = new double[numClasses][numClasses];
+			for( int c = 0; c < numClasses; ++c ) {
+				long actual = 0;
+				long predicted = 0;
+				for( int d = 0; d < numClasses; ++d ) {
+					actual += confusion[c][d];
+					predicted += confusion[d][c];
+					matrix[c][d] = confusion[c][d];
+				}
+				correct += confusion[c][c];
+				expected += (double) actual * predicted;
+			}
+			double accuracy = (double) correct / count;
+			expected /= (double) count * count;
+			double kappa = expected == 1.0 ? 1.0 : ( accuracy - expected ) / ( 1.0 - expected );
+			scores.put( PREDICTIVE_ACCURACY, new MetricScore( accuracy, count ) );
+			scores.put( KAPPA, new MetricScore( kappa, count ) );
+			scores.put( CONFUSION_MATRIX, new MetricScore( matrix ) );
+
+			// weighted by class frequency, skipping classes without positives or negatives
+			Double[] auroc = new Double[numClasses];
+			double weightedAuroc = 0;
+			long weight = 0;
+			for( int c = 0; c < numClasses; ++c ) {
+				auroc[c] = auroc( positives[c], negatives[c] );
+				if( auroc[c].isNaN() == false ) {
+					long frequency = 0;
+					for( long p : positives[c] ) {
+						frequency += p;
+					}
+					weightedAuroc += auroc[c] * frequency;
+					weight += frequency;
+				}
+			}
+			scores.put( AREA_UNDER_ROC_CURVE, new MetricScore( weight == 0 ? Double.NaN : weightedAuroc / weight, auroc, count ) );
+			return scores;
+		}
+
+		private double auroc( long[] positives, long[] negatives ) {
+			double area = 0;
+			long totalPositives = 0;
+			long negativesBelow = 0;
+			for( int b = 0; b < bins; ++b ) {
+				// pairs within a bin count as ties
+				area += positives[b] * ( negativesBelow + 0.5 * negatives[b] );
+				totalPositives += positives[b];
+				negativesBelow += negatives[b];
+			}
+			if( totalPositives == 0 || negativesBelow == 0 ) {
+				return Double.NaN;
+			}
+			return area / ( (double) totalPositives * negativesBelow );
+		}
+	}
+}
@@ -19,9 +19,7 @@
  */
 package org.openml.apiconnector.algorithms;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 
 import org.openml.apiconnector.io.OpenmlConnector;
 import org.openml.apiconnector.xml.DataSetDescription;
@@ -145,24 +143,13 @@ public class TaskInformation {
 	}
 	
 	public static String[] getClassNames( File dataset, int task_id, String targetFeature ) throws Exception {
-		BufferedReader br = new BufferedReader( new FileReader( dataset ) );
-		
-		String line;
-		
-		while( (line = br.readLine()) != null) {
-			if( ArffHelper.isDataDeclaration(line) ) {
-				throw new Exception("Attribute not found before data declaration (task_id="+task_id+")");
-			}
-			if( ArffHelper.isAttributeDeclaration(line) ) {
-				try {
-					if( ArffHelper.getAttributeName( line ).equals( targetFeature ) ) {
-						br.close();
-						return ArffHelper.getNominalValues( line );
-					}
-				} catch( Exception e ) {/*Not going to happen*/}
-			}
+		ArffAttribute attribute = SchemaIndex.get( dataset ).getAttribute( targetFeature );
+		if( attribute == null ) {
+			throw new Exception("Attribute not found (task_id="+task_id+")");
+		}
+		if( attribute.getType() != ArffAttribute.Type.NOMINAL ) {
+			throw new Exception("Attribute " + targetFeature + " is not nominal (task_id="+task_id+")");
 		}
-		br.close();
-		throw new Exception("Attribute not found (task_id="+task_id+")");
+		return attribute.getValues().clone();
 	}
 }
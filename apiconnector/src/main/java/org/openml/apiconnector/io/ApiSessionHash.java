@@ -41,6 +41,7 @@ class ApiSessionHash implements Serializable {
 	private String sessionHash;
 	private long validUntil;
 	private int verboseLevel;
+	private transient HttpTransport transport;
 	
 	/**
 	 * Creates a new session hash. 
@@ -52,6 +53,20 @@ class ApiSessionHash implements Serializable {
 		username = null;
 	}
 	
+	/**
+	 * @param transport - The transport over which authentication requests are done
+	 */
+	public void setTransport( HttpTransport transport ) {
+		this.transport = transport;
+	}
+	
+	/**
+	 * @return The transport that was set, or the shared default transport
+	 */
+	public HttpTransport getTransport() {
+		return transport != null ? transport : HttpTransport.getDefault();
+	}
+	
 	/**
 	 * @return true if the API session hash is still valid, false otherwise
 	 */
@@ -82,7 +97,7 @@ class ApiSessionHash implements Serializable {
 	 * 
 	 * @throws Exception - On authentication failure
 	 */
-	public void update() throws Exception {
+	public synchronized void update() throws Exception {
 		Authenticate auth = openmlAuthenticate(username, password);
 		this.validUntil = DateParser.mysqlDateToTimeStamp(auth.getValidUntil(),auth.getTimezone());
 		this.sessionHash = auth.getSessionHash();
@@ -99,7 +114,7 @@ class ApiSessionHash implements Serializable {
 	/**
 	 * @return The password that was set
 	 */
-	public String getSessionHash() throws Exception {
+	public synchronized String getSessionHash() throws Exception {
 		if( isValid() == false ) {
 			update();
 		}
@@ -161,7 +176,7 @@ class ApiSessionHash implements Serializable {
 		params.addPart("username",new StringBody(username));
 		params.addPart("password",new StringBody(Hashing.md5(password)));
 		
-		Object apiResult = HttpConnector.doApiRequest(server,"openml.authenticate", "", params, null, verboseLevel);
+		Object apiResult = HttpConnector.doApiRequest(getTransport(), server,"openml.authenticate", "", params, null, verboseLevel);
         if( apiResult instanceof Authenticate){
         	return (Authenticate) apiResult;
         } else {
@@ -0,0 +1,512 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.io;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONObject;
+import org.openml.apiconnector.xml.*;
+
+/**
+ * Non-blocking counterpart of the OpenmlConnector. Every API operation is
+ * submitted to a bounded pool of worker threads and returns a Future, so that
+ * many (metadata) requests can be done in parallel. The number of worker
+ * threads bounds the number of concurrent requests to the server.
+ */
+public class AsyncOpenmlConnector {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = HttpTransport.DEFAULT_MAX_PER_ROUTE;
+
+    private final OpenmlConnector connector;
+    private final ExecutorService executor;
+
+    /**
+     * @param connector - The (authenticated) connector that performs the requests
+     */
+    public AsyncOpenmlConnector( OpenmlConnector connector ) {
+        this( connector, DEFAULT_MAX_CONCURRENCY );
+    }
+
+    /**
+     * @param connector - The (authenticated) connector that performs the requests
+     * @param maxConcurrency - Maximal number of requests in progress at the same time.
+     * Should not exceed the per route limit of the connectors transport.
+     */
+    public AsyncOpenmlConnector( OpenmlConnector connector, int maxConcurrency ) {
+        this( connector, newBoundedExecutor( maxConcurrency ) );
+    }
+
+    /**
+     * @param connector - The (authenticated) connector that performs the requests
+     * @param executor - The executor on which requests are executed. Its number of
+     * threads determines the number of concurrent requests.
+     */
+    public AsyncOpenmlConnector( OpenmlConnector connector, ExecutorService executor ) {
+        this.connector = connector;
+        this.executor = executor;
+    }
+
+    /**
+     * @return The blocking connector that performs the requests
+     */
+    public OpenmlConnector getConnector() {
+        return connector;
+    }
+
+    /**
+     * @return The executor on which the requests are executed
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Stops accepting new requests. Requests that were already submitted will
+     * still be executed.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @see OpenmlConnector#authenticate()
+     */
+    public Future<Authenticate> authenticate() {
+        return executor.submit( new Callable<Authenticate>() {
+            public Authenticate call() throws Exception {
+                return connector.authenticate();
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#listData()
+     */
+    public Future<Data> listData() {
+        return executor.submit( new Callable<Data>() {
+            public Data call() throws Exception {
+                return connector.listData();
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#getData(int)
+     */
+    public Future<DataSetDescription> getData( final int did ) {
+        return executor.submit( new Callable<DataSetDescription>() {
+            public DataSetDescription call() throws Exception {
+                return connector.getData(did);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#dataDescription(int)
+     */
+    public Future<DataSetDescription> dataDescription( final int did ) {
+        return executor.submit( new Callable<DataSetDescription>() {
+            public DataSetDescription call() throws Exception {
+                return connector.dataDescription(did);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#dataTag(int, String)
+     */
+    public Future<DataTag> dataTag( final int id, final String tag ) {
+        return executor.submit( new Callable<DataTag>() {
+            public DataTag call() throws Exception {
+                return connector.dataTag(id, tag);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#listLicences()
+     */
+    public Future<LicencesList> listLicences() {
+        return executor.submit( new Callable<LicencesList>() {
+            public LicencesList call() throws Exception {
+                return connector.listLicences();
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#dataFeatures(int)
+     */
+    public Future<DataFeature> dataFeatures( final int did ) {
+        return executor.submit( new Callable<DataFeature>() {
+            public DataFeature call() throws Exception {
+                return connector.dataFeatures(did);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#dataQuality(int)
+     */
+    public Future<DataQuality> dataQuality( final int did ) {
+        return executor.submit( new Callable<DataQuality>() {
+            public DataQuality call() throws Exception {
+                return connector.dataQuality(did);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#dataQuality(Integer, Integer, Integer, Integer)
+     */
+    public Future<DataQuality> dataQuality( final Integer did, final Integer interval_start, final Integer interval_end, final Integer interval_size ) {
+        return executor.submit( new Callable<DataQuality>() {
+            public DataQuality call() throws Exception {
+                return connector.dataQuality(did, interval_start, interval_end, interval_size);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#uploadDataFeature(File)
+     */
+    public Future<DataFeatureUpload> uploadDataFeature( final File description ) {
+        return executor.submit( new Callable<DataFeatureUpload>() {
+            public DataFeatureUpload call() throws Exception {
+                return connector.uploadDataFeature(description);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#uploadDataQuality(File)
+     */
+    public Future<DataQualityUpload> uploadDataQuality( final File description ) {
+        return executor.submit( new Callable<DataQualityUpload>() {
+            public DataQualityUpload call() throws Exception {
+                return connector.uploadDataQuality(description);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#listDataQuality()
+     */
+    public Future<DataQualityList> listDataQuality() {
+        return executor.submit( new Callable<DataQualityList>() {
+            public DataQualityList call() throws Exception {
+                return connector.listDataQuality();
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#getImplementation(int)
+     */
+    public Future<Implementation> getImplementation( final int implementation_id ) {
+        return executor.submit( new Callable<Implementation>() {
+            public Implementation call() throws Exception {
+                return connector.getImplementation(implementation_id);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#tagImplementation(int, String)
+     */
+    public Future<ImplementationTag> tagImplementation( final int id, final String tag ) {
+        return executor.submit( new Callable<ImplementationTag>() {
+            public ImplementationTag call() throws Exception {
+                return connector.tagImplementation(id, tag);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#verifyImplementationOwnership()
+     */
+    public Future<ImplementationOwned> verifyImplementationOwnership() {
+        return executor.submit( new Callable<ImplementationOwned>() {
+            public ImplementationOwned call() throws Exception {
+                return connector.verifyImplementationOwnership();
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#deleteImplementation(int)
+     */
+    public Future<ImplementationDelete> deleteImplementation( final int id ) {
+        return executor.submit( new Callable<ImplementationDelete>() {
+            public ImplementationDelete call() throws Exception {
+                return connector.deleteImplementation(id);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#implementationExists(String, String)
+     */
+    public Future<ImplementationExists> implementationExists( final String name, final String external_version ) {
+        return executor.submit( new Callable<ImplementationExists>() {
+            public ImplementationExists call() throws Exception {
+                return connector.implementationExists(name, external_version);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#listTasks(int)
+     */
+    public Future<Tasks> listTasks( final int task_type_id ) {
+        return executor.submit( new Callable<Tasks>() {
+            public Tasks call() throws Exception {
+                return connector.listTasks(task_type_id);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#getTask(int)
+     */
+    public Future<Task> getTask( final int task_id ) {
+        return executor.submit( new Callable<Task>() {
+            public Task call() throws Exception {
+                return connector.getTask(task_id);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#tagTask(int, String)
+     */
+    public Future<TaskTag> tagTask( final int id, final String tag ) {
+        return executor.submit( new Callable<TaskTag>() {
+            public TaskTag call() throws Exception {
+                return connector.tagTask(id, tag);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#taskEvaluations(int)
+     */
+    public Future<TaskEvaluations> taskEvaluations( final int task_id ) {
+        return executor.submit( new Callable<TaskEvaluations>() {
+            public TaskEvaluations call() throws Exception {
+                return connector.taskEvaluations(task_id);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#taskEvaluations(Integer, Integer, Integer, Integer)
+     */
+    public Future<TaskEvaluations> taskEvaluations( final Integer task_id, final Integer interval_start, final Integer interval_end, final Integer interval_size ) {
+        return executor.submit( new Callable<TaskEvaluations>() {
+            public TaskEvaluations call() throws Exception {
+                return connector.taskEvaluations(task_id, interval_start, interval_end, interval_size);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#uploadData(File, File)
+     */
+    public Future<UploadDataSet> uploadData( final File description, final File dataset ) {
+        return executor.submit( new Callable<UploadDataSet>() {
+            public UploadDataSet call() throws Exception {
+                return connector.uploadData(description, dataset);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#uploadData(DataSetDescription, File)
+     */
+    public Future<UploadDataSet> uploadData( final DataSetDescription description, final File dataset ) {
+        return executor.submit( new Callable<UploadDataSet>() {
+            public UploadDataSet call() throws Exception {
+                return connector.uploadData(description, dataset);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#uploadData(File)
+     */
+    public Future<UploadDataSet> uploadData( final File description ) {
+        return executor.submit( new Callable<UploadDataSet>() {
+            public UploadDataSet call() throws Exception {
+                return connector.uploadData(description);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#uploadImplementation(File, File, File)
+     */
+    public Future<UploadImplementation> uploadImplementation( final File description, final File binary, final File source ) {
+        return executor.submit( new Callable<UploadImplementation>() {
+            public UploadImplementation call() throws Exception {
+                return connector.uploadImplementation(description, binary, source);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#uploadRun(File, Map)
+     */
+    public Future<UploadRun> uploadRun( final File description, final Map<String,File> output_files ) {
+        return executor.submit( new Callable<UploadRun>() {
+            public UploadRun call() throws Exception {
+                return connector.uploadRun(description, output_files);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#tagRun(int, String)
+     */
+    public Future<RunTag> tagRun( final int id, final String tag ) {
+        return executor.submit( new Callable<RunTag>() {
+            public RunTag call() throws Exception {
+                return connector.tagRun(id, tag);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#evaluateRun(File)
+     */
+    public Future<RunEvaluate> evaluateRun( final File description ) {
+        return executor.submit( new Callable<RunEvaluate>() {
+            public RunEvaluate call() throws Exception {
+                return connector.evaluateRun(description);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#getRun(int)
+     */
+    public Future<Run> getRun( final int runId ) {
+        return executor.submit( new Callable<Run>() {
+            public Run call() throws Exception {
+                return connector.getRun(runId);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#deleteRun(int)
+     */
+    public Future<RunDelete> deleteRun( final int id ) {
+        return executor.submit( new Callable<RunDelete>() {
+            public RunDelete call() throws Exception {
+                return connector.deleteRun(id);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#resetRun(int)
+     */
+    public Future<RunReset> resetRun( final int run_id ) {
+        return executor.submit( new Callable<RunReset>() {
+            public RunReset call() throws Exception {
+                return connector.resetRun(run_id);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#uploadFile(File)
+     */
+    public Future<FileUpload> uploadFile( final File file ) {
+        return executor.submit( new Callable<FileUpload>() {
+            public FileUpload call() throws Exception {
+                return connector.uploadFile(file);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#setupTag(int, String)
+     */
+    public Future<SetupTag> setupTag( final int id, final String tag ) {
+        return executor.submit( new Callable<SetupTag>() {
+            public SetupTag call() throws Exception {
+                return connector.setupTag(id, tag);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#jobGet(String, String)
+     */
+    public Future<Job> jobGet( final String workbench, final String task_type_id ) {
+        return executor.submit( new Callable<Job>() {
+            public Job call() throws Exception {
+                return connector.jobGet(workbench, task_type_id);
+            }
+        } );
+    }
+
+    /**
+     * @see OpenmlConnector#freeQuery(String)
+     */
+    public Future<JSONObject> freeQuery( final String sql ) {
+        return executor.submit( new Callable<JSONObject>() {
+            public JSONObject call() throws Exception {
+                return connector.freeQuery(sql);
+            }
+        } );
+    }
+
+    private static ExecutorService newBoundedExecutor( int maxConcurrency ) {
+        if( maxConcurrency < 1 ) {
+            throw new IllegalArgumentException("Concurrency should be at least 1. ");
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor( maxConcurrency, maxConcurrency,
+            60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory() );
+        executor.allowCoreThreadTimeOut( true );
+        return executor;
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        public Thread newThread( Runnable r ) {
+            Thread thread = new Thread( r, "OpenML-AsyncConnector-" + counter.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.io;
+
+/**
+ * Outcome of a single request within a batch: either the requested
+ * object, or the exception that prevented obtaining it.
+ */
+public class BatchResult<T> {
+
+	private final T value;
+	private final Exception exception;
+
+	private BatchResult( T value, Exception exception ) {
+		this.value = value;
+		this.exception = exception;
+	}
+
+	public static <T> BatchResult<T> success( T value ) {
+		return new BatchResult<T>( value, null );
+	}
+
+	public static <T> BatchResult<T> failure( Exception exception ) {
+		return new BatchResult<T>( null, exception );
+	}
+
+	/**
+	 * @return true if the object was obtained; false otherwise
+	 */
+	public boolean isSuccess() {
+		return exception == null;
+	}
+
+	/**
+	 * @return The requested object
+	 * @throws Exception - The exception that occurred while requesting it
+	 */
+	public T get() throws Exception {
+		if( exception != null ) {
+			throw exception;
+		}
+		return value;
+	}
+
+	/**
+	 * @return The requested object, or null if the request failed
+	 */
+	public T getValue() {
+		return value;
+	}
+
+	/**
+	 * @return The exception that occurred, or null if the request succeeded
+	 */
+	public Exception getException() {
+		return exception;
+	}
+
+	@Override
+	public String toString() {
+		return isSuccess() ? "[" + value + "]" : "[failed: " + exception.getMessage() + "]";
+	}
+}
@@ -0,0 +1,269 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.openml.apiconnector.algorithms.Conversion;
+import org.openml.apiconnector.algorithms.Hashing;
+
+/**
+ * Downloads (large) files into the cache. The file is streamed to a partial
+ * file next to the target while its MD5 hash is calculated in the same pass.
+ * Interrupted transfers are resumed with HTTP range requests, and the file is
+ * only renamed to its target once the hash matches the expected one. Every
+ * download writes to a partial file of its own; a download that fails leaves
+ * its partial file under the name target.part, for the next one to resume.
+ * Partial files of downloads that were killed are taken over (or removed) by
+ * the next download of the same target.
+ */
+public class FileDownloader {
+
+	public static final String PARTIAL_SUFFIX = ".part";
+	public static final int DEFAULT_RETRIES = 3;
+
+	/**
+	 * Partial files of other downloads that were not written to for this long
+	 * are considered to be left by a download that was killed.
+	 */
+	public static final long STALE_PARTIAL_AGE = 10 * 60 * 1000L;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * @param url - The URL to download
+	 * @param target - Where the file should be stored
+	 * @param expectedMd5 - The MD5 hash the file should have, or null if it can not be checked
+	 * @return The MD5 hash of the downloaded file
+	 * @throws IOException - When the download fails, or the hash does not match
+	 */
+	public static String download( String url, File target, String expectedMd5 ) throws IOException {
+		return download( HttpTransport.getDefault(), url, target, expectedMd5, DEFAULT_RETRIES );
+	}
+
+	/**
+	 * @param transport - The transport over which the file is downloaded
+	 * @param url - The URL to download
+	 * @param target - Where the file should be stored
+	 * @param expectedMd5 - The MD5 hash the file should have, or null if it can not be checked
+	 * @param retries - How often an interrupted transfer is resumed
+	 * @return The MD5 hash of the downloaded file
+	 * @throws IOException - When the download fails, or the hash does not match
+	 */
+	public static String download( HttpTransport transport, String url, File target, String expectedMd5, int retries ) throws IOException {
+		File directory = target.getAbsoluteFile().getParentFile();
+		directory.mkdirs();
+		File shared = new File( target.getAbsolutePath() + PARTIAL_SUFFIX );
+		recoverStale( directory, target, shared );
+		// a partial file of its own, so that concurrent downloads of the same file do not interfere
+		File partial = File.createTempFile( target.getName() + ".download.", PARTIAL_SUFFIX, directory );
+		partial.delete();
+		// claims the partial file of an interrupted earlier download; the rename 
+		// is atomic, so at most one download resumes it
+		boolean resumed = shared.length() > 0 && shared.renameTo( partial );
+
+		try {
+			String md5 = transfer( transport, url, partial, retries );
+			if( expectedMd5 != null && md5.equals( expectedMd5.trim() ) == false && resumed ) {
+				// the partial file might have been left by an older version of the file
+				Conversion.log( "WARNING", "Download", "Hash of resumed download " + target.getName() + " not correct, downloading again. " );
+				partial.delete();
+				md5 = transfer( transport, url, partial, retries );
+			}
+			if( expectedMd5 != null && md5.equals( expectedMd5.trim() ) == false ) {
+				partial.delete();
+				throw new IOException( "Hash of downloaded file " + target.getName() + " not correct: \n- Client: " + md5 + "\n- Server: " + expectedMd5 );
+			}
+			move( partial, target, md5 );
+			return md5;
+		} catch( IOException e ) {
+			// leaves the bytes obtained so far for a later download to resume
+			if( partial.length() == 0 || shared.exists() || partial.renameTo( shared ) == false ) {
+				partial.delete();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Hands the partial files of killed downloads of a target back under the 
+	 * shared name, so that they can be resumed; other stale ones are deleted.
+	 */
+	private static void recoverStale( File directory, File target, File shared ) {
+		final String prefix = target.getName() + ".download.";
+		File[] files = directory.listFiles( new FilenameFilter() {
+			public boolean accept( File dir, String name ) {
+				return name.startsWith( prefix ) && name.endsWith( PARTIAL_SUFFIX );
+			}
+		} );
+		if( files == null ) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		for( File file : files ) {
+			if( now - file.lastModified() < STALE_PARTIAL_AGE ) {
+				continue;
+			}
+			if( file.length() == 0 || shared.exists() || file.renameTo( shared ) == false ) {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Moves a completed download to its target. If that fails, a target with
+	 * the same content is accepted.
+	 */
+	private static void move( File partial, File target, String md5 ) throws IOException {
+		if( Conversion.replaceFile( partial, target ) ) {
+			return;
+		}
+		// the target might be in use, e.g., the same file completed by a concurrent download
+		boolean identical = target.exists() && md5.equals( Hashing.md5( target ) );
+		partial.delete();
+		if( identical == false ) {
+			throw new IOException( "Could not move " + partial.getAbsolutePath() + " to " + target.getAbsolutePath() );
+		}
+	}
+
+	private static String transfer( HttpTransport transport, String url, File partial, int retries ) throws IOException {
+		Progress progress;
+		try {
+			progress = new Progress( MessageDigest.getInstance( "MD5" ) );
+		} catch( NoSuchAlgorithmException e ) {
+			throw new IOException( e.getMessage() );
+		}
+
+		for( int attempt = 0; ; ++attempt ) {
+			try {
+				transferAttempt( transport, url, partial, progress );
+				return new String( Hex.encodeHex( progress.digest.digest() ) );
+			} catch( IOException e ) {
+				if( attempt >= retries ) {
+					throw e;
+				}
+				Conversion.log( "WARNING", "Download", "Transfer of " + url + " interrupted (" + e.getMessage() + "), resuming at byte " + partial.length() + ". " );
+			}
+		}
+	}
+
+	/**
+	 * Appends the remainder of the file to the partial file. The digest 
+	 * carries over between attempts, so that only appended bytes are hashed;
+	 * the existing bytes are only read when the digest does not cover them 
+	 * (a partial file of an earlier download, or an interrupted write).
+	 */
+	private static void transferAttempt( HttpTransport transport, String url, File partial, Progress progress ) throws IOException {
+		long offset = partial.length();
+		if( offset != progress.hashed ) {
+			progress.digest.reset();
+			progress.hashed = 0;
+			update( progress, partial );
+		}
+
+		HttpGet get = new HttpGet( url );
+		if( offset > 0 ) {
+			get.setHeader( "Range", "bytes=" + offset + "-" );
+		}
+		HttpResponse response = transport.getClient().execute( get );
+		HttpEntity entity = response.getEntity();
+		try {
+			int status = response.getStatusLine().getStatusCode();
+			boolean append;
+			if( status == HttpStatus.SC_PARTIAL_CONTENT && offset > 0 ) {
+				append = true;
+			} else if( status == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE && offset > 0 ) {
+				// the partial file is not shorter than the actual file; start over
+				partial.delete();
+				throw new IOException( "Requested range not satisfiable" );
+			} else if( status == HttpStatus.SC_OK ) {
+				// server does not support ranges (or none were requested)
+				append = false;
+				progress.digest.reset();
+				progress.hashed = 0;
+			} else {
+				throw new IOException( "Server responded with " + response.getStatusLine() );
+			}
+			if( entity == null ) {
+				throw new IOException( "No content received for " + url );
+			}
+
+			InputStream in = entity.getContent();
+			OutputStream out = new FileOutputStream( partial, append );
+			try {
+				byte[] buffer = new byte[BUFFER_SIZE];
+				int read;
+				while( ( read = in.read( buffer ) ) != -1 ) {
+					out.write( buffer, 0, read );
+					progress.digest.update( buffer, 0, read );
+					progress.hashed += read;
+				}
+			} finally {
+				out.close();
+			}
+		} catch( IOException e ) {
+			// do not drain the remainder of a broken transfer
+			get.abort();
+			throw e;
+		} finally {
+			try { EntityUtils.consume( entity ); } catch( Exception ignore ) {}
+		}
+	}
+
+	private static void update( Progress progress, File file ) throws IOException {
+		InputStream in = new FileInputStream( file );
+		try {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while( ( read = in.read( buffer ) ) != -1 ) {
+				progress.digest.update( buffer, 0, read );
+				progress.hashed += read;
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * The digest of a partial file, along with the number of bytes it covers.
+	 */
+	private static class Progress {
+		final MessageDigest digest;
+		long hashed = 0;
+
+		Progress( MessageDigest digest ) {
+			this.digest = digest;
+		}
+	}
+}
@@ -1,24 +1,31 @@
 package org.openml.apiconnector.io;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.Date;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.entity.mime.content.StringBody;
-import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.cookie.DateUtils;
+import org.apache.http.util.EntityUtils;
 import org.openml.apiconnector.settings.Constants;
 import org.openml.apiconnector.xml.ApiError;
 import org.openml.apiconnector.xstream.XstreamXmlMapping;
 
-import com.thoughtworks.xstream.XStream;
-
 public class HttpConnector implements Serializable {
 
 	public static final String API_PART = "rest_api/";
@@ -26,45 +33,84 @@ public class HttpConnector implements Serializable {
 	private static final long serialVersionUID = -8589069573065947493L;
 	
 	public static Object doApiRequest( String url, String function, String queryString, MultipartEntity entity, ApiSessionHash ash, int apiVerboseLevel ) throws Exception {
-		XStream xstream = XstreamXmlMapping.getInstance();
-		
-		if( ash != null ) {
-			if( entity == null ) {
-				entity = new MultipartEntity();
-			}
-			entity.addPart("session_hash", new StringBody( ash.getSessionHash() ) );
+		return doApiRequest(HttpTransport.getDefault(), url, function, queryString, entity, ash, apiVerboseLevel);
+	}
+	
+	public static Object doApiRequest( HttpTransport transport, String url, String function, String queryString, MultipartEntity entity, ApiSessionHash ash, int apiVerboseLevel ) throws Exception {
+		return doApiRequest(transport, url, function, queryString, entity, ash, apiVerboseLevel, 0L);
+	}
+	
+	/**
+	 * Performs an API request. When ifModifiedSince is set and no session is
+	 * used, the request is conditional: a server that supports this can answer
+	 * that the object was not modified, without sending it again. Conditional
+	 * headers are only defined for GET, and the session hash is never put in a
+	 * URL (where it would end up in proxy and server logs), so requests with a
+	 * session are always sent unconditionally, as POST. 
+	 * 
+	 * @param ifModifiedSince - Moment (milliseconds since the epoch) on which a cached
+	 * copy was obtained; 0 for an unconditional request. Ignored when a session is used.
+	 * @return The resulting API object, or null if the server answered 304 Not Modified
+	 */
+	public static Object doApiRequest( HttpTransport transport, String url, String function, String queryString, MultipartEntity entity, ApiSessionHash ash, int apiVerboseLevel, long ifModifiedSince ) throws Exception {
+		boolean conditional = ifModifiedSince > 0 && ash == null;
+		if( conditional && entity != null ) {
+			throw new IllegalArgumentException( "Conditional requests can not carry an entity. " );
 		}
 		
-		String result = "";
-		HttpClient httpclient = new DefaultHttpClient();
+		HttpClient httpclient = transport.getClient();
 		String requestUri = url + API_PART + "?f=" + function;
 		if( queryString != null ) {
 			requestUri += queryString;
 		}
-		long contentLength = 0;
+		
+		HttpUriRequest request;
+		if( conditional ) {
+			request = new HttpGet( requestUri );
+			request.setHeader( "If-Modified-Since", DateUtils.formatDate( new Date( ifModifiedSince ) ) );
+		} else {
+			if( ash != null ) {
+				if( entity == null ) {
+					entity = new MultipartEntity();
+				}
+				entity.addPart("session_hash", new StringBody( ash.getSessionHash() ) );
+			}
+			HttpPost httppost = new HttpPost( requestUri );
+			if(entity != null) {
+				httppost.setEntity(entity);
+			}
+			request = httppost;
+		}
+		
+		Object apiResult;
+		HttpEntity resEntity = null;
 		try {
-            HttpPost httppost = new HttpPost( requestUri );
-            
-            if(entity != null) {
-            	httppost.setEntity(entity);
+            HttpResponse response = httpclient.execute(request);
+            resEntity = response.getEntity();
+            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+            	if(apiVerboseLevel >= Constants.VERBOSE_LEVEL_XML) {
+            		System.out.println("===== REQUEST URI: " + requestUri + " (Not Modified) =====\n");
+            	}
+            	return null;
+            }
+            if (resEntity == null) {
+            	throw new Exception("An exception has occured while reading data input stream. ");
             }
             
-            HttpResponse response = httpclient.execute(httppost);
-            HttpEntity resEntity = response.getEntity();
-            if (resEntity != null) {
-            	result = httpEntitiToString(resEntity);
-                contentLength = resEntity.getContentLength();
+            if(apiVerboseLevel >= Constants.VERBOSE_LEVEL_XML) {
+            	// the response is printed, so it needs to be buffered anyway
+            	String result = httpEntitiToString(resEntity);
+            	System.out.println("===== REQUEST URI: " + requestUri + " (Content Length: "+resEntity.getContentLength()+") =====\n" + result + "\n=====\n");
+            	apiResult = XstreamXmlMapping.getInstance().fromXML(result);
             } else {
-            	throw new Exception("An exception has occured while reading data input stream. ");
+            	// parses directly from the connection, without an intermediate string or DOM
+            	apiResult = XstreamXmlMapping.getStreamingInstance().fromXML(entityReader(resEntity));
             }
 		} finally {
-            try { httpclient.getConnectionManager().shutdown(); } catch (Exception ignore) {}
+			// releases the connection back to the pool, instead of closing it
+            try { EntityUtils.consume(resEntity); } catch (Exception ignore) {}
         }
-		if(apiVerboseLevel >= Constants.VERBOSE_LEVEL_XML) {
-			System.out.println("===== REQUEST URI: " + requestUri + " (Content Length: "+contentLength+") =====\n" + result + "\n=====\n");
-		}
 		
-		Object apiResult = xstream.fromXML(result);
 		if(apiResult instanceof ApiError) {
 			ApiError apiError = (ApiError) apiResult;
 			throw new ApiException( Integer.parseInt( apiError.getCode() ), apiError.getMessage() );
@@ -76,9 +122,27 @@ public class HttpConnector implements Serializable {
 		return doApiRequest(url, function, queryString, null, ash, apiVerboseLevel);
 	}
 	
+	public static Object doApiRequest(HttpTransport transport, String url, String function, String queryString, ApiSessionHash ash, int apiVerboseLevel) throws Exception {
+		return doApiRequest(transport, url, function, queryString, null, ash, apiVerboseLevel);
+	}
+	
+	/**
+	 * @param resEntity - A response entity
+	 * @return A reader over the content of the entity, decoded with the charset
+	 * announced by the server (UTF-8 if none was announced)
+	 * @throws IOException
+	 */
+	static Reader entityReader(HttpEntity resEntity) throws IOException {
+		Charset charset = ContentType.getOrDefault(resEntity).getCharset();
+		if( charset == null ) {
+			charset = Charset.forName("UTF-8");
+		}
+		return new BufferedReader( new InputStreamReader( resEntity.getContent(), charset ) );
+	}
+	
 	private static String httpEntitiToString(HttpEntity resEntity) throws IOException {
 		StringWriter writer = new StringWriter();
-		IOUtils.copy(new InputStreamReader( resEntity.getContent() ), writer );
+		IOUtils.copy(entityReader(resEntity), writer );
 		return writer.toString();
 	}
 }
@@ -0,0 +1,129 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.io;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+
+/**
+ * A shared HTTP transport that keeps connections to the OpenML server alive
+ * between API calls. Connections are pooled per route and connections that
+ * have been idle for too long are evicted by a background daemon thread.
+ */
+public class HttpTransport {
+
+	public static final int DEFAULT_MAX_TOTAL = 64;
+	public static final int DEFAULT_MAX_PER_ROUTE = 16;
+	public static final long DEFAULT_IDLE_TIMEOUT = 30000; // 30 seconds
+
+	private static HttpTransport defaultTransport = null;
+
+	private final PoolingClientConnectionManager connectionManager;
+	private final DefaultHttpClient httpclient;
+	private final long idleTimeout;
+	private final Thread evictor;
+	private volatile boolean shutdown = false;
+
+	/**
+	 * Creates a transport with the default pool limits.
+	 */
+	public HttpTransport() {
+		this( DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_ROUTE, DEFAULT_IDLE_TIMEOUT );
+	}
+
+	/**
+	 * @param maxTotal - Maximal number of open connections, over all routes
+	 * @param maxPerRoute - Maximal number of open connections to a single host
+	 * @param idleTimeout - Milliseconds after which an unused connection is closed
+	 */
+	public HttpTransport( int maxTotal, int maxPerRoute, long idleTimeout ) {
+		this.idleTimeout = idleTimeout;
+		connectionManager = new PoolingClientConnectionManager();
+		connectionManager.setMaxTotal( maxTotal );
+		connectionManager.setDefaultMaxPerRoute( maxPerRoute );
+		httpclient = new DefaultHttpClient( connectionManager );
+
+		evictor = new Thread( new IdleConnectionEvictor(), "OpenML-HttpTransport-evictor" );
+		evictor.setDaemon( true );
+		evictor.start();
+	}
+
+	/**
+	 * @return The transport that is shared by all connectors that were not
+	 * given a transport of their own.
+	 */
+	public static synchronized HttpTransport getDefault() {
+		if( defaultTransport == null || defaultTransport.isShutdown() ) {
+			defaultTransport = new HttpTransport();
+		}
+		return defaultTransport;
+	}
+
+	/**
+	 * @return The (thread safe) client that executes requests on the pool
+	 */
+	public HttpClient getClient() {
+		return httpclient;
+	}
+
+	public int getMaxTotal() {
+		return connectionManager.getMaxTotal();
+	}
+
+	public int getMaxPerRoute() {
+		return connectionManager.getDefaultMaxPerRoute();
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	/**
+	 * Closes all pooled connections and stops the eviction thread.
+	 */
+	public void shutdown() {
+		shutdown = true;
+		evictor.interrupt();
+		connectionManager.shutdown();
+	}
+
+	private class IdleConnectionEvictor implements Runnable {
+		@Override
+		public void run() {
+			long interval = Math.max( 1000, idleTimeout / 2 );
+			try {
+				while( shutdown == false ) {
+					Thread.sleep( interval );
+					connectionManager.closeExpiredConnections();
+					connectionManager.closeIdleConnections( idleTimeout, TimeUnit.MILLISECONDS );
+				}
+			} catch( InterruptedException e ) {
+				// shutting down
+			}
+		}
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.io;
+
+import org.openml.apiconnector.xml.TaskEvaluations;
+
+/**
+ * Pages through the interval evaluations of a (data stream) task, one
+ * TaskEvaluations per window of instances, downloading the next windows
+ * while the caller processes the current one.
+ */
+public class IntervalEvaluationIterator extends WindowedIterator<TaskEvaluations> {
+
+	private final OpenmlConnector connector;
+	private final int task_id;
+	private final int interval_size;
+
+	/**
+	 * @param connector - The connector to download evaluations with
+	 * @param task_id - The task
+	 * @param interval_start - The first instance of the range
+	 * @param interval_end - The end of the range
+	 * @param interval_size - The size of the intervals evaluations are calculated over
+	 * @param window - The number of instances per request; rounded up to a multiple of interval_size
+	 * @param prefetch - The number of windows to download ahead of the caller
+	 */
+	public IntervalEvaluationIterator( OpenmlConnector connector, int task_id, int interval_start, int interval_end, int interval_size, int window, int prefetch ) {
+		super( "OpenML-IntervalEvaluations-" + task_id, interval_start, interval_end, interval_size, window, prefetch );
+		this.connector = connector;
+		this.task_id = task_id;
+		this.interval_size = interval_size;
+	}
+
+	@Override
+	protected TaskEvaluations fetch( int start, int end ) throws Exception {
+		return connector.taskEvaluations( task_id, start, end, interval_size );
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openml.apiconnector.algorithms.Conversion;
+import org.openml.apiconnector.models.IntervalQualities;
+import org.openml.apiconnector.xml.DataQuality;
+
+/**
+ * Pages through the interval qualities of a (data stream) data set, one
+ * IntervalQualities per window of instances. Values are parsed into
+ * doubles on the background thread that downloads the next windows, while
+ * the caller processes the current one.
+ */
+public class IntervalQualityIterator extends WindowedIterator<IntervalQualities> {
+
+	private final OpenmlConnector connector;
+	private final int did;
+	private final int interval_size;
+	// only used on the background thread
+	private final Map<String, Integer> qualityIndex = new LinkedHashMap<String, Integer>();
+
+	/**
+	 * @param connector - The connector to download qualities with
+	 * @param did - The data set
+	 * @param interval_start - The first instance of the range
+	 * @param interval_end - The end of the range
+	 * @param interval_size - The size of the intervals qualities are calculated over
+	 * @param window - The number of instances per request; rounded up to a multiple of interval_size
+	 * @param prefetch - The number of windows to download ahead of the caller
+	 */
+	public IntervalQualityIterator( OpenmlConnector connector, int did, int interval_start, int interval_end, int interval_size, int window, int prefetch ) {
+		super( "OpenML-IntervalQualities-" + did, interval_start, interval_end, interval_size, window, prefetch );
+		this.connector = connector;
+		this.did = did;
+		this.interval_size = interval_size;
+	}
+
+	@Override
+	protected IntervalQualities fetch( int start, int end ) throws Exception {
+		DataQuality dataQuality = connector.dataQuality( did, start, end, interval_size );
+		DataQuality.Quality[] qualities = dataQuality.getQualities() == null ? new DataQuality.Quality[0] : dataQuality.getQualities();
+
+		// intervals in order of appearance; qualities without interval are skipped
+		Map<Long, Integer> intervals = new LinkedHashMap<Long, Integer>();
+		List<double[]> rows = new ArrayList<double[]>();
+		List<int[]> bounds = new ArrayList<int[]>();
+		for( DataQuality.Quality quality : qualities ) {
+			if( quality.getInterval_start() == null || quality.getInterval_end() == null ) {
+				continue;
+			}
+			Integer index = qualityIndex.get( quality.getName() );
+			if( index == null ) {
+				index = qualityIndex.size();
+				qualityIndex.put( quality.getName().intern(), index );
+			}
+			long key = ( (long) quality.getInterval_start() << 32 ) | ( quality.getInterval_end() & 0xffffffffL );
+			Integer row = intervals.get( key );
+			if( row == null ) {
+				row = rows.size();
+				intervals.put( key, row );
+				rows.add( new double[0] );
+				bounds.add( new int[] { quality.getInterval_start(), quality.getInterval_end() } );
+			}
+			double[] values = rows.get( row );
+			if( values.length <= index ) {
+				int length = values.length;
+				values = Arrays.copyOf( values, Math.max( index + 1, qualityIndex.size() ) );
+				Arrays.fill( values, length, values.length, Double.NaN );
+				rows.set( row, values );
+			}
+			values[index] = Conversion.stringToDouble( quality.getValue() );
+		}
+
+		int[] interval_start = new int[rows.size()];
+		int[] interval_end = new int[rows.size()];
+		for( int i = 0; i < bounds.size(); ++i ) {
+			interval_start[i] = bounds.get( i )[0];
+			interval_end[i] = bounds.get( i )[1];
+		}
+		String[] names = qualityIndex.keySet().toArray( new String[qualityIndex.size()] );
+		return new IntervalQualities( did, interval_start, interval_end, names, rows.toArray( new double[rows.size()][] ) );
+	}
+}
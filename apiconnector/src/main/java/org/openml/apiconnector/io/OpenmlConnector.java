@@ -24,10 +24,20 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.DataFormatException;
 
 import org.json.JSONObject;
+import org.json.JSONTokener;
 import org.openml.apiconnector.algorithms.Caching;
 import org.openml.apiconnector.algorithms.Conversion;
 import org.openml.apiconnector.settings.Constants;
@@ -35,9 +45,14 @@ import org.openml.apiconnector.settings.Settings;
 import org.openml.apiconnector.xml.*;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.StringBody;
+import org.apache.http.util.EntityUtils;
 import org.openml.apiconnector.xstream.XstreamXmlMapping;
 
 import com.thoughtworks.xstream.XStream;
@@ -52,6 +67,17 @@ public class OpenmlConnector implements Serializable {
 
     private final ApiSessionHash sessionHash;
 
+    /**
+     * Transport over which all requests are done. Falls back to the shared
+     * default transport when not set (or after deserialization).
+     */
+    private transient HttpTransport transport;
+
+    /**
+     * Maximal number of requests that a batch operation has in progress at the same time.
+     */
+    private int batchConcurrency = AsyncOpenmlConnector.DEFAULT_MAX_CONCURRENCY;
+
     private final String API_URL;
 
     /**
@@ -113,6 +139,35 @@ public class OpenmlConnector implements Serializable {
         return sessionHash.getSessionHash();
     }
 
+    /**
+     * Sets the transport over which all API requests (including authentication)
+     * of this connector are done.
+     *
+     * @param transport - A (pooled) HTTP transport
+     */
+    public void setTransport( HttpTransport transport ) {
+        this.transport = transport;
+        sessionHash.setTransport(transport);
+    }
+
+    /**
+     * @return The transport that was set, or the shared default transport
+     */
+    public HttpTransport getTransport() {
+        return transport != null ? transport : HttpTransport.getDefault();
+    }
+
+    /**
+     * @param concurrency - Maximal number of requests that a batch operation
+     * (e.g., dataDescriptions) has in progress at the same time.
+     */
+    public void setBatchConcurrency( int concurrency ) {
+        if( concurrency < 1 ) {
+            throw new IllegalArgumentException("Concurrency should be at least 1. ");
+        }
+        batchConcurrency = concurrency;
+    }
+
     public void setVerboseLevel( int level ) {
         verboseLevel = level;
     }
@@ -146,7 +201,7 @@ public class OpenmlConnector implements Serializable {
      * server down, etc.
      */
     public Data listData() throws Exception {
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data", "", sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.data", "", sessionHash, verboseLevel );
         if( apiResult instanceof Data){
             return (Data) apiResult;
         } else {
@@ -175,14 +230,8 @@ public class OpenmlConnector implements Serializable {
      * server down, etc.
      */
     public DataSetDescription dataDescription( int did ) throws Exception {
-        if( Settings.LOCAL_OPERATIONS ) {
-            String dsdString = Conversion.fileToString( Caching.cached("datadescription", did ) );
-            return (DataSetDescription) XstreamXmlMapping.getInstance().fromXML( dsdString );
-        }
-
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data.description", "&data_id=" + did, sessionHash, verboseLevel );
+        Object apiResult = cachedApiRequest( "datadescription", did, DataSetDescription.class, "openml.data.description", "&data_id=" + did );
         if( apiResult instanceof DataSetDescription){
-            if( Settings.CACHE_ALLOWED ) { Caching.cache( apiResult, "datadescription", did ); }
             return (DataSetDescription) apiResult;
         } else {
             throw new DataFormatException("Casting Api Object to DataSetDescription");
@@ -191,7 +240,7 @@ public class OpenmlConnector implements Serializable {
 
     public DataTag dataTag( int id, String tag ) throws Exception {
         String qs = "&data_id=" + id + "&tag=" + tag;
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data.tag", qs, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.data.tag", qs, sessionHash, verboseLevel );
         if( apiResult instanceof DataTag){
             return (DataTag) apiResult;
         } else {
@@ -200,7 +249,7 @@ public class OpenmlConnector implements Serializable {
     }
 
     public LicencesList listLicences() throws Exception {
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data.licences", "", sessionHash, verboseLevel);
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.data.licences", "", sessionHash, verboseLevel);
         if (apiResult instanceof LicencesList) {
             return (LicencesList) apiResult;
         } else {
@@ -217,7 +266,7 @@ public class OpenmlConnector implements Serializable {
      * server down, etc.
      */
     public DataFeature dataFeatures( int did ) throws Exception {
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data.features", "&data_id=" + did, sessionHash, verboseLevel );
+        Object apiResult = cachedApiRequest( "datafeatures", did, DataFeature.class, "openml.data.features", "&data_id=" + did );
         if( apiResult instanceof DataFeature){
             return (DataFeature) apiResult;
         } else {
@@ -234,7 +283,7 @@ public class OpenmlConnector implements Serializable {
      * server down, etc.
      */
     public DataQuality dataQuality( int did ) throws Exception {
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data.qualities", "&data_id=" + did, sessionHash, verboseLevel );
+        Object apiResult = cachedApiRequest( "dataquality", did, DataQuality.class, "openml.data.qualities", "&data_id=" + did );
         if( apiResult instanceof DataQuality){
             return (DataQuality) apiResult;
         } else {
@@ -259,7 +308,7 @@ public class OpenmlConnector implements Serializable {
         if( interval_end   != null ) { queryString += "&interval_end=" + interval_end; }
         if( interval_size  != null ) { queryString += "&interval_size=" + interval_size; }
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data.qualities", queryString, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.data.qualities", queryString, sessionHash, verboseLevel );
 
         if( apiResult instanceof DataQuality){
             return (DataQuality) apiResult;
@@ -268,6 +317,20 @@ public class OpenmlConnector implements Serializable {
         }
     }
 
+    /**
+     * Pages through the qualities of a data set on intervals, downloading the next windows while the current one is processed.
+     *
+     * @param did - The data_id of the data set
+     * @param interval_start - The first instance of the range
+     * @param interval_end - The end of the range
+     * @param interval_size - The size of the intervals qualities are calculated over
+     * @param window - The number of instances per request
+     * @return An iterator over the qualities, with primitive values per window. Call close() when stopping early.
+     */
+    public IntervalQualityIterator dataQuality( int did, int interval_start, int interval_end, int interval_size, int window ) {
+        return new IntervalQualityIterator( this, did, interval_start, interval_end, interval_size, window, WindowedIterator.DEFAULT_PREFETCH );
+    }
+
     public DataFeatureUpload uploadDataFeature( File description ) throws Exception {
         MultipartEntity params = new MultipartEntity();
         params.addPart("description", new FileBody(description));
@@ -276,7 +339,7 @@ public class OpenmlConnector implements Serializable {
             System.out.println( Conversion.fileToString(description) + "\n==========\n" );
         }
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data.features.upload", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.data.features.upload", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof DataFeatureUpload){
             return (DataFeatureUpload) apiResult;
         } else {
@@ -288,7 +351,7 @@ public class OpenmlConnector implements Serializable {
         MultipartEntity params = new MultipartEntity();
         params.addPart("description", new FileBody(description));
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data.qualities.upload", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.data.qualities.upload", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof DataQualityUpload){
             return (DataQualityUpload) apiResult;
         } else {
@@ -297,7 +360,7 @@ public class OpenmlConnector implements Serializable {
     }
 
     public DataQualityList listDataQuality() throws Exception {
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data.qualities.list", "", sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.data.qualities.list", "", sessionHash, verboseLevel );
         if( apiResult instanceof DataQualityList){
             return (DataQualityList) apiResult;
         } else {
@@ -312,7 +375,7 @@ public class OpenmlConnector implements Serializable {
      * server down, etc.
      */
     public Implementation getImplementation(int implementation_id) throws Exception {
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.implementation.get", "&implementation_id=" + implementation_id, sessionHash, verboseLevel );
+        Object apiResult = cachedApiRequest( "implementation", implementation_id, Implementation.class, "openml.implementation.get", "&implementation_id=" + implementation_id );
         if( apiResult instanceof Implementation){
             return (Implementation) apiResult;
         } else {
@@ -322,7 +385,7 @@ public class OpenmlConnector implements Serializable {
 
     public ImplementationTag tagImplementation( int id, String tag ) throws Exception {
         String qs = "&implementation_id=" + id + "&tag=" + tag;
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.implementation.tag", qs, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.implementation.tag", qs, sessionHash, verboseLevel );
         if( apiResult instanceof ImplementationTag){
             return (ImplementationTag) apiResult;
         } else {
@@ -338,7 +401,7 @@ public class OpenmlConnector implements Serializable {
     public ImplementationOwned verifyImplementationOwnership() throws Exception {
         MultipartEntity params = new MultipartEntity();
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.implementation.owned", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.implementation.owned", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof ImplementationOwned){
             return (ImplementationOwned) apiResult;
         } else {
@@ -356,7 +419,7 @@ public class OpenmlConnector implements Serializable {
         MultipartEntity params = new MultipartEntity();
         params.addPart("implementation_id",new StringBody(""+id));
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.implementation.delete", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.implementation.delete", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof ImplementationDelete){
             return (ImplementationDelete) apiResult;
         } else {
@@ -373,7 +436,7 @@ public class OpenmlConnector implements Serializable {
      * server down, etc.
      */
     public ImplementationExists implementationExists( String name, String external_version ) throws Exception {
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.implementation.exists", "&name=" + name + "&external_version=" + external_version, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.implementation.exists", "&name=" + name + "&external_version=" + external_version, sessionHash, verboseLevel );
         if( apiResult instanceof ImplementationExists){
             return (ImplementationExists) apiResult;
         } else {
@@ -388,7 +451,7 @@ public class OpenmlConnector implements Serializable {
      * @throws Exception
      */
     public Tasks listTasks( int task_type_id ) throws Exception {
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.tasks", "&task_type_id=" + task_type_id, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.tasks", "&task_type_id=" + task_type_id, sessionHash, verboseLevel );
         if( apiResult instanceof Tasks){
             return (Tasks) apiResult;
         } else {
@@ -403,14 +466,8 @@ public class OpenmlConnector implements Serializable {
      * server down, etc.
      */
     public Task getTask( int task_id ) throws Exception {
-        if( Settings.LOCAL_OPERATIONS ) {
-            String taskXml = Conversion.fileToString( Caching.cached("task", task_id ) );
-            return (Task) XstreamXmlMapping.getInstance().fromXML( taskXml );
-        }
-
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.task.get", "&task_id=" + task_id, sessionHash, verboseLevel );
+        Object apiResult = cachedApiRequest( "task", task_id, Task.class, "openml.task.get", "&task_id=" + task_id );
         if( apiResult instanceof Task){
-            if( Settings.CACHE_ALLOWED ) { Caching.cache( apiResult, "task", task_id ); }
             return (Task) apiResult;
         } else {
             throw new DataFormatException("Casting Api Object to Task");
@@ -419,7 +476,7 @@ public class OpenmlConnector implements Serializable {
 
     public TaskTag tagTask( int id, String tag ) throws Exception {
         String qs = "&task_id=" + id + "&tag=" + tag;
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.task.tag", qs, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.task.tag", qs, sessionHash, verboseLevel );
         if( apiResult instanceof TaskTag){
             return (TaskTag) apiResult;
         } else {
@@ -428,7 +485,7 @@ public class OpenmlConnector implements Serializable {
     }
 
     public TaskEvaluations taskEvaluations( int task_id ) throws Exception {
-        Object apiResult = HttpConnector.doApiRequest( API_URL, "openml.task.evaluations", "&task_id=" + task_id, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.task.evaluations", "&task_id=" + task_id, sessionHash, verboseLevel );
         if( apiResult instanceof TaskEvaluations) {
             return (TaskEvaluations) apiResult;
         } else {
@@ -436,13 +493,27 @@ public class OpenmlConnector implements Serializable {
         }
     }
 
+    /**
+     * Pages through the interval evaluations of a task, downloading the next windows while the current one is processed.
+     *
+     * @param task_id - The task
+     * @param interval_start - The first instance of the range
+     * @param interval_end - The end of the range
+     * @param interval_size - The size of the intervals evaluations are calculated over
+     * @param window - The number of instances per request
+     * @return An iterator over the evaluations, one TaskEvaluations per window. Call close() when stopping early.
+     */
+    public IntervalEvaluationIterator taskEvaluations( int task_id, int interval_start, int interval_end, int interval_size, int window ) {
+        return new IntervalEvaluationIterator( this, task_id, interval_start, interval_end, interval_size, window, WindowedIterator.DEFAULT_PREFETCH );
+    }
+
     public TaskEvaluations taskEvaluations( Integer task_id, Integer interval_start, Integer interval_end, Integer interval_size ) throws Exception {
         String queryString = "&task_id=" + task_id;
         if( interval_start != null ) { queryString += "&interval_start=" + interval_start; }
         if( interval_end   != null ) { queryString += "&interval_end=" + interval_end; }
         if( interval_size  != null ) { queryString += "&interval_size=" + interval_size; }
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.task.evaluations", queryString, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.task.evaluations", queryString, sessionHash, verboseLevel );
         if( apiResult instanceof TaskEvaluations){
             return (TaskEvaluations) apiResult;
         } else {
@@ -450,6 +521,66 @@ public class OpenmlConnector implements Serializable {
         }
     }
 
+    /**
+     * Retrieves the descriptions of multiple data sets in parallel.
+     *
+     * @param dids - The data_ids of the data descriptions to download. Duplicates are requested once.
+     * @return A map from data_id to the result of its request. A failing request does not
+     * abort the batch, but is stored as failed result.
+     */
+    public Map<Integer, BatchResult<DataSetDescription>> dataDescriptions( Collection<Integer> dids ) {
+        return batch( dids, new BatchOperation<DataSetDescription>() {
+            public DataSetDescription execute( int did ) throws Exception {
+                return dataDescription( did );
+            }
+        } );
+    }
+
+    /**
+     * Retrieves the features of multiple data sets in parallel.
+     *
+     * @param dids - The data_ids of the data features to download. Duplicates are requested once.
+     * @return A map from data_id to the result of its request. A failing request does not
+     * abort the batch, but is stored as failed result.
+     */
+    public Map<Integer, BatchResult<DataFeature>> dataFeatures( Collection<Integer> dids ) {
+        return batch( dids, new BatchOperation<DataFeature>() {
+            public DataFeature execute( int did ) throws Exception {
+                return dataFeatures( did );
+            }
+        } );
+    }
+
+    /**
+     * Retrieves the qualities of multiple data sets in parallel.
+     *
+     * @param dids - The data_ids of the data qualities to download. Duplicates are requested once.
+     * @return A map from data_id to the result of its request. A failing request does not
+     * abort the batch, but is stored as failed result.
+     */
+    public Map<Integer, BatchResult<DataQuality>> dataQualities( Collection<Integer> dids ) {
+        return batch( dids, new BatchOperation<DataQuality>() {
+            public DataQuality execute( int did ) throws Exception {
+                return dataQuality( did );
+            }
+        } );
+    }
+
+    /**
+     * Retrieves multiple tasks in parallel.
+     *
+     * @param task_ids - The numeric ids of the tasks to be obtained. Duplicates are requested once.
+     * @return A map from task_id to the result of its request. A failing request does not
+     * abort the batch, but is stored as failed result.
+     */
+    public Map<Integer, BatchResult<Task>> getTasks( Collection<Integer> task_ids ) {
+        return batch( task_ids, new BatchOperation<Task>() {
+            public Task execute( int task_id ) throws Exception {
+                return getTask( task_id );
+            }
+        } );
+    }
+
     /**
      * @param description - An XML file describing the data. See documentation at openml.org
      * @param dataset - The actual dataset. Preferably in ARFF format, but almost everything is OK.
@@ -462,7 +593,7 @@ public class OpenmlConnector implements Serializable {
         params.addPart("description", new FileBody(description));
         if( dataset != null) params.addPart("dataset", new FileBody(dataset));
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.data.upload", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.data.upload", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof UploadDataSet){
             return (UploadDataSet) apiResult;
         } else {
@@ -508,7 +639,7 @@ public class OpenmlConnector implements Serializable {
         if(binary != null)
             params.addPart("binary", new FileBody(binary));
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.implementation.upload", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.implementation.upload", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof UploadImplementation){
             return (UploadImplementation) apiResult;
         } else {
@@ -536,7 +667,7 @@ public class OpenmlConnector implements Serializable {
         for( String s : output_files.keySet() ) {
             params.addPart(s,new FileBody(output_files.get(s)));
         }
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.run.upload", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.run.upload", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof UploadRun){
             return (UploadRun) apiResult;
         } else {
@@ -546,7 +677,7 @@ public class OpenmlConnector implements Serializable {
 
     public RunTag tagRun( int id, String tag ) throws Exception {
         String qs = "&run_id=" + id + "&tag=" + tag;
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.run.tag", qs, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.run.tag", qs, sessionHash, verboseLevel );
         if( apiResult instanceof RunTag){
             return (RunTag) apiResult;
         } else {
@@ -558,7 +689,7 @@ public class OpenmlConnector implements Serializable {
         MultipartEntity params = new MultipartEntity();
         params.addPart("description", new FileBody(description));
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.run.evaluate", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.run.evaluate", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof RunEvaluate){
             return (RunEvaluate) apiResult;
         } else {
@@ -567,7 +698,7 @@ public class OpenmlConnector implements Serializable {
     }
 
     public Run getRun(int runId) throws Exception {
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.run.get", "&run_id=" + runId, sessionHash, verboseLevel);
+        Object apiResult = cachedApiRequest( "run", runId, Run.class, "openml.run.get", "&run_id=" + runId );
         if( apiResult instanceof Run){
             return (Run) apiResult;
         } else {
@@ -585,7 +716,7 @@ public class OpenmlConnector implements Serializable {
         MultipartEntity params = new MultipartEntity();
         params.addPart("run_id",new StringBody(""+id));
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.run.delete", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.run.delete", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof RunDelete){
             return (RunDelete) apiResult;
         } else {
@@ -597,7 +728,7 @@ public class OpenmlConnector implements Serializable {
         MultipartEntity params = new MultipartEntity();
         params.addPart("run_id", new StringBody(""+run_id));
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.run.reset", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.run.reset", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof RunReset){
             return (RunReset) apiResult;
         } else {
@@ -612,7 +743,7 @@ public class OpenmlConnector implements Serializable {
         }
         params.addPart("file", new FileBody(file));
 
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.file.upload", "", params, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.file.upload", "", params, sessionHash, verboseLevel );
         if( apiResult instanceof FileUpload){
             return (FileUpload) apiResult;
         } else {
@@ -622,7 +753,7 @@ public class OpenmlConnector implements Serializable {
 
     public SetupTag setupTag( int id, String tag ) throws Exception {
         String qs = "&setup_id=" + id + "&tag=" + tag;
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.setup.tag", qs, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.setup.tag", qs, sessionHash, verboseLevel );
         if( apiResult instanceof SetupTag){
             return (SetupTag) apiResult;
         } else {
@@ -640,7 +771,7 @@ public class OpenmlConnector implements Serializable {
      * server down, no tasks available for this workbench.
      */
     public Job jobGet( String workbench, String task_type_id ) throws Exception {
-        Object apiResult = HttpConnector.doApiRequest(API_URL, "openml.job.get", "&workbench=" + workbench + "&task_type_id=" + task_type_id, sessionHash, verboseLevel );
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, "openml.job.get", "&workbench=" + workbench + "&task_type_id=" + task_type_id, sessionHash, verboseLevel );
         if( apiResult instanceof Job ){
             return (Job) apiResult;
         } else {
@@ -654,7 +785,23 @@ public class OpenmlConnector implements Serializable {
      * @throws Exception
      */
     public JSONObject freeQuery( String sql ) throws Exception {
-        return new JSONObject( getStringFromUrl( API_URL + "api_query/?q=" + URLEncoder.encode( sql, "ISO-8859-1" ) + "&hash=" + getSessionHash() ) );
+        String url = API_URL + "api_query/?q=" + URLEncoder.encode( sql, "ISO-8859-1" ) + "&hash=" + getSessionHash();
+        HttpResponse response = getTransport().getClient().execute( new HttpGet( url ) );
+        HttpEntity entity = response.getEntity();
+        try {
+            int status = response.getStatusLine().getStatusCode();
+            if( status != HttpStatus.SC_OK ) {
+                throw new ApiException( status, "Query failed: " + response.getStatusLine().getReasonPhrase() );
+            }
+            if( entity == null ) {
+                throw new Exception( "An exception has occured while reading data input stream. " );
+            }
+            // tokenizes directly from the connection, instead of buffering the result
+            return new JSONObject( new JSONTokener( HttpConnector.entityReader( entity ) ) );
+        } finally {
+            // releases the connection back to the pool, also when the request failed
+            EntityUtils.consume( entity );
+        }
     }
 
     /**
@@ -687,4 +834,77 @@ public class OpenmlConnector implements Serializable {
         String suffix = "?session_hash=" + sessionHash.getSessionHash();
         return new URL( API_URL + "data/download/" + id + "/" + filename + suffix );
     }
+
+    /**
+     * Obtains an object that can be cached. Objects in the cache that are within
+     * the time to live of their type are returned without contacting the server.
+     * Stale objects are revalidated with a conditional GET request when no session
+     * is used; otherwise, or if the server does not support that, the object is
+     * simply downloaded again.
+     */
+    private Object cachedApiRequest( String type, int id, Class<?> expected, String function, String queryString ) throws Exception {
+        if( Settings.LOCAL_OPERATIONS ) {
+            return Caching.load( type, id );
+        }
+
+        Caching.Entry entry = Settings.CACHE_ALLOWED ? Caching.lookup( type, id ) : null;
+        if( entry != null && entry.isFresh() ) {
+            return entry.getValue();
+        }
+
+        long ifModifiedSince = entry == null ? 0L : entry.getStoredAt();
+        Object apiResult = HttpConnector.doApiRequest(getTransport(), API_URL, function, queryString, null, sessionHash, verboseLevel, ifModifiedSince );
+        if( apiResult == null && entry != null ) {
+            // not modified since it was cached
+            Caching.revalidated( entry );
+            return entry.getValue();
+        }
+        if( Settings.CACHE_ALLOWED && expected.isInstance( apiResult ) ) {
+            Caching.cache( apiResult, type, id );
+        }
+        return apiResult;
+    }
+
+    private interface BatchOperation<T> {
+        T execute( int id ) throws Exception;
+    }
+
+    /**
+     * Executes an operation for every distinct id, with at most batchConcurrency
+     * requests in progress at the same time. The resulting map preserves the
+     * order in which the ids were given.
+     */
+    private <T> Map<Integer, BatchResult<T>> batch( Collection<Integer> ids, final BatchOperation<T> operation ) {
+        Set<Integer> distinct = new LinkedHashSet<Integer>( ids );
+        Map<Integer, BatchResult<T>> results = new LinkedHashMap<Integer, BatchResult<T>>();
+        if( distinct.isEmpty() ) {
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( batchConcurrency, distinct.size() ) );
+        try {
+            Map<Integer, Future<T>> futures = new LinkedHashMap<Integer, Future<T>>();
+            for( final Integer id : distinct ) {
+                futures.put( id, executor.submit( new Callable<T>() {
+                    public T call() throws Exception {
+                        return operation.execute( id );
+                    }
+                } ) );
+            }
+            for( Integer id : futures.keySet() ) {
+                try {
+                    results.put( id, BatchResult.success( futures.get( id ).get() ) );
+                } catch( ExecutionException e ) {
+                    Throwable cause = e.getCause();
+                    results.put( id, BatchResult.<T>failure( cause instanceof Exception ? (Exception) cause : e ) );
+                } catch( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    results.put( id, BatchResult.<T>failure( e ) );
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
 }
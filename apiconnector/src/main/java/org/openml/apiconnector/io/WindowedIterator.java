@@ -0,0 +1,162 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.openml.apiconnector.io;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pages through an interval range in windows of instances. While the caller
+ * processes a window, the next windows are fetched on a background thread.
+ * At most prefetch windows are held besides the one returned last, so
+ * memory does not depend on the range.
+ *
+ * As an Iterator can not throw checked exceptions, a failed fetch is thrown
+ * from next() as an IllegalStateException with the failure as cause.
+ *
+ * Callers that stop before the last window (e.g., break out of a loop) 
+ * should call close(), which cancels the windows that are fetched ahead. 
+ * The background thread also exits by itself once it has been idle for 
+ * IDLE_TIMEOUT milliseconds, so an abandoned iterator does not keep it alive.
+ */
+public abstract class WindowedIterator<T> implements Iterator<T> {
+
+	public static final int DEFAULT_PREFETCH = 2;
+
+	/**
+	 * Milliseconds after which an idle background thread exits.
+	 */
+	public static final long IDLE_TIMEOUT = 5000L;
+
+	private final int interval_end;
+	private final int window;
+	private final int prefetch;
+	private final ThreadPoolExecutor executor;
+	private final LinkedList<Future<T>> pending = new LinkedList<Future<T>>();
+	private int nextStart;
+	private boolean closed = false;
+
+	/**
+	 * @param name - Name of the background thread
+	 * @param interval_start - The first instance of the range
+	 * @param interval_end - The end of the range
+	 * @param interval_size - The size of the intervals; windows are a multiple of it
+	 * @param window - The number of instances per window; rounded up to a multiple of interval_size
+	 * @param prefetch - The number of windows to fetch ahead of the caller
+	 */
+	protected WindowedIterator( final String name, int interval_start, int interval_end, int interval_size, int window, int prefetch ) {
+		if( interval_size < 1 || window < 1 || prefetch < 1 ) {
+			throw new IllegalArgumentException( "Interval size, window and prefetch should be positive. " );
+		}
+		this.interval_end = interval_end;
+		this.window = ( ( window + interval_size - 1 ) / interval_size ) * interval_size;
+		this.prefetch = prefetch;
+		this.nextStart = interval_start;
+		// a single thread, so that windows are fetched in order
+		this.executor = new ThreadPoolExecutor( 1, 1, IDLE_TIMEOUT, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			public Thread newThread( Runnable r ) {
+				Thread thread = new Thread( r, name );
+				thread.setDaemon( true );
+				return thread;
+			}
+		} );
+		this.executor.allowCoreThreadTimeOut( true );
+	}
+
+	/**
+	 * Fetches a single window. Called on the background thread.
+	 *
+	 * @param start - The first instance of the window
+	 * @param end - The end of the window
+	 */
+	protected abstract T fetch( int start, int end ) throws Exception;
+
+	public synchronized boolean hasNext() {
+		fill();
+		return pending.isEmpty() == false;
+	}
+
+	/**
+	 * @return The next window, waiting for it to be fetched if needed
+	 * @throws IllegalStateException - When the window could not be fetched
+	 */
+	public T next() {
+		Future<T> future;
+		synchronized( this ) {
+			fill();
+			if( pending.isEmpty() ) {
+				throw new NoSuchElementException();
+			}
+			future = pending.removeFirst();
+			fill();
+		}
+		try {
+			return future.get();
+		} catch( ExecutionException e ) {
+			close();
+			throw new IllegalStateException( "Could not fetch window: " + e.getCause().getMessage(), e.getCause() );
+		} catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new IllegalStateException( "Interrupted while fetching window. ", e );
+		}
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Cancels the pending fetches and stops the background thread. Called
+	 * automatically when the last window was returned or a fetch failed.
+	 */
+	public synchronized void close() {
+		closed = true;
+		for( Future<T> future : pending ) {
+			future.cancel( true );
+		}
+		pending.clear();
+		executor.shutdownNow();
+	}
+
+	private synchronized void fill() {
+		while( closed == false && pending.size() < prefetch && nextStart < interval_end ) {
+			final int start = nextStart;
+			final int end = (int) Math.min( (long) start + window, interval_end );
+			pending.add( executor.submit( new Callable<T>() {
+				public T call() throws Exception {
+					return fetch( start, end );
+				}
+			} ) );
+			nextStart = end;
+		}
+		if( pending.isEmpty() && closed == false ) {
+			executor.shutdown();
+		}
+	}
+}
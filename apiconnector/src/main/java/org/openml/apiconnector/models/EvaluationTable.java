@@ -0,0 +1,267 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package org.openml.apiconnector.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openml.apiconnector.algorithms.Conversion;
+import org.openml.apiconnector.xml.TaskEvaluations;
+import org.openml.apiconnector.xml.TaskEvaluations.Evaluation;
+import org.openml.apiconnector.xml.TaskEvaluations.Evaluation.Measure;
+
+/**
+ * Column wise view of the evaluations of a task. Every measure gets a 
+ * double[] column (NaN where a run lacks the measure or its value is not 
+ * numeric), and rows can be found by run, setup and implementation id
+ * without scanning. A run has a row per interval it was evaluated on, and
+ * a row without interval for the evaluation over all data.
+ */
+public class EvaluationTable {
+
+	private final int task_id;
+	private final int rows;
+	private final int[] run_ids;
+	private final int[] setup_ids;
+	private final int[] implementation_ids;
+	private final String[] implementations;
+	private final int[] interval_start;
+	private final int[] interval_end;
+	
+	private final String[] measureNames;
+	private final Map<String, Integer> measureIndex;
+	private final double[][] columns;
+	
+	private final Map<Integer, int[]> runIndex;
+	private final Map<Integer, int[]> implementationIndex;
+	private final Map<Integer, int[]> setupIndex;
+	
+	/**
+	 * @param taskEvaluations - The evaluations, as returned by the API
+	 */
+	public EvaluationTable( TaskEvaluations taskEvaluations ) {
+		Evaluation[] evaluations = taskEvaluations.getEvaluation() == null ? new Evaluation[0] : taskEvaluations.getEvaluation();
+		task_id = taskEvaluations.getTask_id();
+		rows = evaluations.length;
+		run_ids = new int[rows];
+		setup_ids = new int[rows];
+		implementation_ids = new int[rows];
+		implementations = new String[rows];
+		interval_start = new int[rows];
+		interval_end = new int[rows];
+		
+		measureIndex = new LinkedHashMap<String, Integer>();
+		for( Evaluation e : evaluations ) {
+			if( e.getMeasures() == null ) continue;
+			for( Measure m : e.getMeasures() ) {
+				if( measureIndex.containsKey( m.getName() ) == false ) {
+					measureIndex.put( m.getName().intern(), measureIndex.size() );
+				}
+			}
+		}
+		measureNames = measureIndex.keySet().toArray( new String[measureIndex.size()] );
+		columns = new double[measureNames.length][rows];
+		for( double[] column : columns ) {
+			Arrays.fill( column, Double.NaN );
+		}
+		
+		Map<String, String> names = new HashMap<String, String>();
+		for( int row = 0; row < rows; ++row ) {
+			Evaluation e = evaluations[row];
+			run_ids[row] = e.getRun_id();
+			setup_ids[row] = e.getSetup_id();
+			implementation_ids[row] = e.getImplementation_id();
+			implementations[row] = canonical( names, e.getImplementation() );
+			interval_start[row] = e.getInterval_start() == null ? -1 : e.getInterval_start();
+			interval_end[row] = e.getInterval_end() == null ? -1 : e.getInterval_end();
+			if( e.getMeasures() == null ) continue;
+			for( Measure m : e.getMeasures() ) {
+				columns[measureIndex.get( m.getName() )][row] = Conversion.stringToDouble( m.getValue() );
+			}
+		}
+		
+		runIndex = index( run_ids );
+		implementationIndex = index( implementation_ids );
+		setupIndex = index( setup_ids );
+	}
+	
+	public int getTask_id() {
+		return task_id;
+	}
+	
+	public int numRows() {
+		return rows;
+	}
+	
+	/**
+	 * @return The names of all measures, in order of first appearance
+	 */
+	public String[] getMeasureNames() {
+		return measureNames.clone();
+	}
+	
+	public boolean hasMeasure( String name ) {
+		return measureIndex.containsKey( name );
+	}
+	
+	/**
+	 * @param name - Name of the measure, e.g., predictive_accuracy
+	 * @return The value of the measure per row, NaN if missing. Not a copy.
+	 * @throws IllegalArgumentException - If no run has the measure
+	 */
+	public double[] getColumn( String name ) {
+		Integer index = measureIndex.get( name );
+		if( index == null ) {
+			throw new IllegalArgumentException( "No evaluations with measure " + name + " on task " + task_id );
+		}
+		return columns[index];
+	}
+	
+	/**
+	 * @return The value of a measure for a row, NaN if missing
+	 */
+	public double getValue( int row, String name ) {
+		return getColumn( name )[row];
+	}
+	
+	/**
+	 * @return The run id per row. Not a copy.
+	 */
+	public int[] getRun_ids() {
+		return run_ids;
+	}
+	
+	/**
+	 * @return The setup id per row. Not a copy.
+	 */
+	public int[] getSetup_ids() {
+		return setup_ids;
+	}
+	
+	/**
+	 * @return The implementation id per row. Not a copy.
+	 */
+	public int[] getImplementation_ids() {
+		return implementation_ids;
+	}
+	
+	public String getImplementation( int row ) {
+		return implementations[row];
+	}
+	
+	/**
+	 * @return The start of the interval of the evaluation in a row, -1 if the evaluation is not over an interval
+	 */
+	public int getInterval_start( int row ) {
+		return interval_start[row];
+	}
+	
+	/**
+	 * @return The end of the interval of the evaluation in a row, -1 if the evaluation is not over an interval
+	 */
+	public int getInterval_end( int row ) {
+		return interval_end[row];
+	}
+	
+	/**
+	 * @return The row of the evaluation of a run over all data (not over an 
+	 * interval), or -1 if the table does not have it
+	 */
+	public int rowOfRun( int run_id ) {
+		return rowOfRun( run_id, -1 );
+	}
+	
+	/**
+	 * @param interval_start - The start of the interval, or -1 for the evaluation over all data
+	 * @return The row of the evaluation of a run on an interval, or -1 if the table does not have it
+	 */
+	public int rowOfRun( int run_id, int interval_start ) {
+		int[] candidates = runIndex.get( run_id );
+		if( candidates != null ) {
+			for( int row : candidates ) {
+				if( this.interval_start[row] == interval_start ) {
+					return row;
+				}
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * @return The rows of all evaluations of a run (over all data and per interval), in ascending order
+	 */
+	public int[] rowsOfRun( int run_id ) {
+		int[] result = runIndex.get( run_id );
+		return result == null ? new int[0] : result.clone();
+	}
+	
+	/**
+	 * @return The rows of all runs of an implementation, in ascending order
+	 */
+	public int[] rowsOfImplementation( int implementation_id ) {
+		int[] result = implementationIndex.get( implementation_id );
+		return result == null ? new int[0] : result.clone();
+	}
+	
+	/**
+	 * @return The rows of all runs of a setup, in ascending order
+	 */
+	public int[] rowsOfSetup( int setup_id ) {
+		int[] result = setupIndex.get( setup_id );
+		return result == null ? new int[0] : result.clone();
+	}
+	
+	private static Map<Integer, int[]> index( int[] ids ) {
+		Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+		for( int id : ids ) {
+			Integer count = counts.get( id );
+			counts.put( id, count == null ? 1 : count + 1 );
+		}
+		Map<Integer, int[]> index = new HashMap<Integer, int[]>();
+		for( Integer id : counts.keySet() ) {
+			index.put( id, new int[counts.get( id )] );
+		}
+		Map<Integer, Integer> filled = new HashMap<Integer, Integer>();
+		for( int row = 0; row < ids.length; ++row ) {
+			Integer position = filled.get( ids[row] );
+			int p = position == null ? 0 : position;
+			index.get( ids[row] )[p] = row;
+			filled.put( ids[row], p + 1 );
+		}
+		return index;
+	}
+	
+	private static String canonical( Map<String, String> names, String name ) {
+		if( name == null ) return null;
+		String existing = names.get( name );
+		if( existing == null ) {
+			names.put( name, name );
+			return name;
+		}
+		return existing;
+	}
+	
+	@Override
+	public String toString() {
+		return "[task " + task_id + ", " + rows + " evaluations, measures " + Arrays.toString( measureNames ) + "]";
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package org.openml.apiconnector.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class IntervalQualities {
+
+	private final int did;
+	private final int[] interval_start;
+	private final int[] interval_end;
+	private final String[] names;
+	private final Map<String, Integer> nameIndex;
+	private final double[][] values;
+	
+	/**
+	 * Qualities of a data set over consecutive intervals, as primitive values. 
+	 * Row i holds the qualities of interval i; column j the quality names[j] 
+	 * (NaN where the quality was not calculated for an interval or is not 
+	 * numeric). Quality indices are shared by all windows of the same iterator,
+	 * so later windows can only have more columns. 
+	 * 
+	 * @param did - The data set
+	 * @param interval_start - Per interval its start
+	 * @param interval_end - Per interval its end
+	 * @param names - Per quality index its name
+	 * @param values - Per interval the value of each quality
+	 */
+	public IntervalQualities( int did, int[] interval_start, int[] interval_end, String[] names, double[][] values ) {
+		this.did = did;
+		this.interval_start = interval_start;
+		this.interval_end = interval_end;
+		this.names = names;
+		this.values = values;
+		this.nameIndex = new HashMap<String, Integer>();
+		for( int i = 0; i < names.length; ++i ) {
+			nameIndex.put( names[i], i );
+		}
+	}
+	
+	public int getDid() {
+		return did;
+	}
+	
+	public int numIntervals() {
+		return interval_start.length;
+	}
+	
+	public int numQualities() {
+		return names.length;
+	}
+	
+	public int getInterval_start( int interval ) {
+		return interval_start[interval];
+	}
+	
+	public int getInterval_end( int interval ) {
+		return interval_end[interval];
+	}
+	
+	/**
+	 * @return The name of a quality index
+	 */
+	public String getName( int quality ) {
+		return names[quality];
+	}
+	
+	/**
+	 * @return The index of a quality, or -1 if it does not occur
+	 */
+	public int indexOf( String name ) {
+		Integer index = nameIndex.get( name );
+		return index == null ? -1 : index;
+	}
+	
+	/**
+	 * @return The value of a quality on an interval, or NaN if it is missing
+	 */
+	public double getValue( int interval, int quality ) {
+		return quality < values[interval].length ? values[interval][quality] : Double.NaN;
+	}
+	
+	/**
+	 * @return The value of a quality on an interval, or NaN if it is missing
+	 */
+	public double getValue( int interval, String name ) {
+		int quality = indexOf( name );
+		return quality < 0 ? Double.NaN : getValue( interval, quality );
+	}
+	
+	/**
+	 * @return The values of all qualities on an interval, by quality index. Not a copy.
+	 */
+	public double[] getValues( int interval ) {
+		return values[interval];
+	}
+	
+	/**
+	 * @return The value of a quality on each interval, NaN where it is missing
+	 */
+	public double[] getColumn( int quality ) {
+		double[] column = new double[values.length];
+		for( int i = 0; i < values.length; ++i ) {
+			column[i] = getValue( i, quality );
+		}
+		return column;
+	}
+	
+	@Override
+	public String toString() {
+		return "[data " + did + ", " + numIntervals() + " intervals, qualities " + Arrays.toString( names ) + "]";
+	}
+}
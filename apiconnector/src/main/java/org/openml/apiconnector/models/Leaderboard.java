@@ -0,0 +1,315 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package org.openml.apiconnector.models;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.openml.apiconnector.io.OpenmlConnector;
+import org.openml.apiconnector.xml.TaskEvaluations;
+
+/**
+ * Aggregates the evaluations of many tasks on a single measure: the top k 
+ * runs per task, the top k implementations per task (by their best run) 
+ * and the average rank of each implementation across tasks. Memory grows 
+ * with k times the number of tasks (plus the rank of each implementation 
+ * per task), not with the number of evaluations. 
+ */
+public class Leaderboard {
+
+	private final String measure;
+	private final int k;
+	private final boolean higherIsBetter;
+	private final Comparator<Entry> better;
+	
+	// per task only the k best runs and the k best implementations are retained
+	private final Map<Integer, List<Entry>> topRuns = new LinkedHashMap<Integer, List<Entry>>();
+	private final Map<Integer, List<Entry>> topImplementations = new LinkedHashMap<Integer, List<Entry>>();
+	private final Map<Integer, Map<Integer, Double>> taskRanks = new HashMap<Integer, Map<Integer, Double>>(); // task_id -> implementation_id -> rank
+	private final Map<Integer, double[]> rankSums = new HashMap<Integer, double[]>(); // implementation_id -> { sum of ranks, tasks }
+	
+	/**
+	 * @param measure - Name of the measure, e.g., predictive_accuracy
+	 * @param k - Number of runs and implementations to retain per task
+	 * @param higherIsBetter - Whether higher values of the measure are better (false for error measures)
+	 */
+	public Leaderboard( String measure, int k, boolean higherIsBetter ) {
+		if( k < 1 ) {
+			throw new IllegalArgumentException( "k should be at least 1. " );
+		}
+		this.measure = measure;
+		this.k = k;
+		this.higherIsBetter = higherIsBetter;
+		this.better = new Comparator<Entry>() {
+			public int compare( Entry a, Entry b ) {
+				int result = Double.compare( b.value, a.value );
+				if( Leaderboard.this.higherIsBetter == false ) {
+					result = -result;
+				}
+				// older runs win ties, so that results are deterministic
+				return result != 0 ? result : ( a.run_id < b.run_id ? -1 : ( a.run_id == b.run_id ? 0 : 1 ) );
+			}
+		};
+	}
+	
+	public String getMeasure() {
+		return measure;
+	}
+	
+	/**
+	 * Adds the evaluations of a task. Evaluations without a (numeric) value 
+	 * for the measure and evaluations over an interval are skipped. Adding a task again replaces its earlier 
+	 * results, e.g., to take new runs into account. 
+	 * 
+	 * @param evaluations - The evaluations of a task
+	 */
+	public void add( TaskEvaluations evaluations ) {
+		merge( evaluations.getTask_id(), new EvaluationTable( evaluations ) );
+	}
+	
+	/**
+	 * Adds the evaluations of a task.
+	 * 
+	 * @param table - The evaluations of a task
+	 */
+	public void add( EvaluationTable table ) {
+		merge( table.getTask_id(), table );
+	}
+	
+	/**
+	 * Downloads and adds the evaluations of tasks in parallel. The response 
+	 * of a task is discarded as soon as it is aggregated. 
+	 * 
+	 * @param connector - The connector to download evaluations with
+	 * @param task_ids - The tasks to add
+	 * @param threads - Number of tasks to download at the same time
+	 * @return Per task that could not be added, the exception that occurred
+	 */
+	public Map<Integer, Exception> addAll( final OpenmlConnector connector, Collection<Integer> task_ids, int threads ) {
+		Map<Integer, Exception> failures = new LinkedHashMap<Integer, Exception>();
+		if( task_ids.isEmpty() ) {
+			return failures;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool( Math.max( 1, Math.min( threads, task_ids.size() ) ) );
+		try {
+			Map<Integer, Future<Object>> futures = new LinkedHashMap<Integer, Future<Object>>();
+			for( final Integer task_id : task_ids ) {
+				futures.put( task_id, executor.submit( new Callable<Object>() {
+					public Object call() throws Exception {
+						add( new EvaluationTable( connector.taskEvaluations( task_id ) ) );
+						return null;
+					}
+				} ) );
+			}
+			for( Integer task_id : futures.keySet() ) {
+				try {
+					futures.get( task_id ).get();
+				} catch( ExecutionException e ) {
+					Throwable cause = e.getCause();
+					failures.put( task_id, cause instanceof Exception ? (Exception) cause : e );
+				} catch( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+					failures.put( task_id, e );
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return failures;
+	}
+	
+	/**
+	 * @return The best k runs of a task, best first
+	 */
+	public synchronized List<Entry> getTopRuns( int task_id ) {
+		List<Entry> result = topRuns.get( task_id );
+		return result == null ? new ArrayList<Entry>() : new ArrayList<Entry>( result );
+	}
+	
+	/**
+	 * @return The best run of each of the best k implementations of a task, best first
+	 */
+	public synchronized List<Entry> getTopImplementations( int task_id ) {
+		List<Entry> result = topImplementations.get( task_id );
+		return result == null ? new ArrayList<Entry>() : new ArrayList<Entry>( result );
+	}
+	
+	/**
+	 * @return The aggregated tasks, in order of addition
+	 */
+	public synchronized List<Integer> getTasks() {
+		return new ArrayList<Integer>( topRuns.keySet() );
+	}
+	
+	/**
+	 * The rank of an implementation on a task is the position of its best run 
+	 * among the best runs of all implementations on that task (1 is best, ties 
+	 * share the average position). 
+	 * 
+	 * @return Per implementation id its average rank over the tasks it was run on, best first
+	 */
+	public synchronized Map<Integer, Double> getAverageRanks() {
+		List<Map.Entry<Integer, Double>> averages = new ArrayList<Map.Entry<Integer, Double>>();
+		Map<Integer, Double> unsorted = new HashMap<Integer, Double>();
+		for( Integer implementation_id : rankSums.keySet() ) {
+			double[] sum = rankSums.get( implementation_id );
+			unsorted.put( implementation_id, sum[0] / sum[1] );
+		}
+		averages.addAll( unsorted.entrySet() );
+		Collections.sort( averages, new Comparator<Map.Entry<Integer, Double>>() {
+			public int compare( Map.Entry<Integer, Double> a, Map.Entry<Integer, Double> b ) {
+				int result = Double.compare( a.getValue(), b.getValue() );
+				return result != 0 ? result : a.getKey().compareTo( b.getKey() );
+			}
+		} );
+		Map<Integer, Double> result = new LinkedHashMap<Integer, Double>();
+		for( Map.Entry<Integer, Double> entry : averages ) {
+			result.put( entry.getKey(), entry.getValue() );
+		}
+		return result;
+	}
+	
+	/**
+	 * Computes the results of a single task without holding the lock, and 
+	 * merges them afterwards, so that tasks can be processed in parallel.
+	 */
+	private void merge( int task_id, EvaluationTable table ) {
+		List<Entry> runs = new ArrayList<Entry>();
+		Map<Integer, Entry> bestPerImplementation = new HashMap<Integer, Entry>();
+		
+		if( table.hasMeasure( measure ) ) {
+			double[] column = table.getColumn( measure );
+			// bounded heap with the worst retained run on top
+			PriorityQueue<Entry> heap = new PriorityQueue<Entry>( k + 1, Collections.reverseOrder( better ) );
+			for( int row = 0; row < table.numRows(); ++row ) {
+				// per interval evaluations (of data stream tasks) are not ranked
+				if( Double.isNaN( column[row] ) || table.getInterval_start( row ) != -1 ) {
+					continue;
+				}
+				Entry entry = new Entry( table.getRun_ids()[row], table.getSetup_ids()[row], table.getImplementation_ids()[row], table.getImplementation( row ), column[row] );
+				if( heap.size() < k ) {
+					heap.add( entry );
+				} else if( better.compare( entry, heap.peek() ) < 0 ) {
+					heap.poll();
+					heap.add( entry );
+				}
+				Entry best = bestPerImplementation.get( entry.implementation_id );
+				if( best == null || better.compare( entry, best ) < 0 ) {
+					bestPerImplementation.put( entry.implementation_id, entry );
+				}
+			}
+			runs.addAll( heap );
+			Collections.sort( runs, better );
+		}
+		
+		List<Entry> implementations = new ArrayList<Entry>( bestPerImplementation.values() );
+		Collections.sort( implementations, better );
+		Map<Integer, Double> ranks = new HashMap<Integer, Double>();
+		for( int i = 0; i < implementations.size(); ) {
+			int j = i;
+			while( j + 1 < implementations.size() && implementations.get( j + 1 ).value == implementations.get( i ).value ) {
+				j += 1;
+			}
+			double rank = ( i + j ) / 2.0 + 1;
+			for( int t = i; t <= j; ++t ) {
+				ranks.put( implementations.get( t ).implementation_id, rank );
+			}
+			i = j + 1;
+		}
+		
+		synchronized( this ) {
+			topRuns.put( task_id, runs );
+			topImplementations.put( task_id, new ArrayList<Entry>( implementations.subList( 0, Math.min( k, implementations.size() ) ) ) );
+			Map<Integer, Double> previous = taskRanks.put( task_id, ranks );
+			if( previous != null ) {
+				for( Integer implementation_id : previous.keySet() ) {
+					double[] sum = rankSums.get( implementation_id );
+					sum[0] -= previous.get( implementation_id );
+					sum[1] -= 1;
+					if( sum[1] == 0 ) {
+						rankSums.remove( implementation_id );
+					}
+				}
+			}
+			for( Integer implementation_id : ranks.keySet() ) {
+				double[] sum = rankSums.get( implementation_id );
+				if( sum == null ) {
+					sum = new double[2];
+					rankSums.put( implementation_id, sum );
+				}
+				sum[0] += ranks.get( implementation_id );
+				sum[1] += 1;
+			}
+		}
+	}
+	
+	public static class Entry {
+		private final int run_id;
+		private final int setup_id;
+		private final int implementation_id;
+		private final String implementation;
+		private final double value;
+		
+		public Entry( int run_id, int setup_id, int implementation_id, String implementation, double value ) {
+			this.run_id = run_id;
+			this.setup_id = setup_id;
+			this.implementation_id = implementation_id;
+			this.implementation = implementation;
+			this.value = value;
+		}
+		
+		public int getRun_id() {
+			return run_id;
+		}
+		
+		public int getSetup_id() {
+			return setup_id;
+		}
+		
+		public int getImplementation_id() {
+			return implementation_id;
+		}
+		
+		public String getImplementation() {
+			return implementation;
+		}
+		
+		public double getValue() {
+			return value;
+		}
+		
+		@Override
+		public String toString() {
+			return "[run " + run_id + ", " + implementation + ", " + value + "]";
+		}
+	}
+}
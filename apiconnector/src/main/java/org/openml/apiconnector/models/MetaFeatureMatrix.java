@@ -0,0 +1,249 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package org.openml.apiconnector.models;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openml.apiconnector.algorithms.Conversion;
+import org.openml.apiconnector.xml.Data;
+import org.openml.apiconnector.xml.DataQuality;
+
+/**
+ * Dense matrix of data set qualities (meta-features): one row per data set
+ * and one column per quality name, stored column wise as double[] with NaN
+ * for missing or non-numeric values. Rows are found by data set id and
+ * columns by quality name. The matrix can be refreshed with newer listings
+ * or single data sets; existing rows are then overwritten in place.
+ */
+public class MetaFeatureMatrix {
+
+	private int rows = 0;
+	private int capacity = 0;
+	private int[] dids = new int[0];
+	private String[] statuses = new String[0];
+	private final Map<Integer, Integer> rowIndex = new HashMap<Integer, Integer>();
+	
+	private String[] names = new String[0];
+	private final Map<String, Integer> columnIndex = new HashMap<String, Integer>();
+	private double[][] columns = new double[0][];
+	
+	private long version = 0;
+	
+	/**
+	 * @param data - A listing of data sets, e.g., from listData()
+	 * @return The matrix of the qualities in the listing
+	 */
+	public static MetaFeatureMatrix build( Data data ) {
+		MetaFeatureMatrix matrix = new MetaFeatureMatrix();
+		matrix.update( data );
+		return matrix;
+	}
+	
+	/**
+	 * Adds or refreshes the rows of all data sets in a listing, in a single pass.
+	 * 
+	 * @param data - A listing of data sets, e.g., from listData()
+	 */
+	public void update( Data data ) {
+		if( data.getData() == null ) {
+			return;
+		}
+		ensureCapacity( rows + data.getData().length );
+		for( Data.DataSet dataset : data.getData() ) {
+			int row = row( dataset.getDid() );
+			statuses[row] = dataset.getStatus() == null ? null : dataset.getStatus().intern();
+			if( dataset.getQualities() == null ) continue;
+			for( Data.DataSet.Quality quality : dataset.getQualities() ) {
+				int column = column( quality.getName() );
+				columns[column][row] = Conversion.stringToDouble( quality.getValue() );
+			}
+		}
+		version += 1;
+	}
+	
+	/**
+	 * Adds or refreshes the row of a single data set, e.g., a newly uploaded one. 
+	 * Qualities that were calculated on an interval are skipped.
+	 * 
+	 * @param dataQuality - The qualities of a data set, e.g., from dataQuality(did)
+	 * @param status - The status of the data set, or null if it is unknown
+	 */
+	public void update( DataQuality dataQuality, String status ) {
+		ensureCapacity( rows + 1 );
+		int row = row( dataQuality.getDid() );
+		statuses[row] = status == null ? null : status.intern();
+		if( dataQuality.getQualities() != null ) {
+			for( DataQuality.Quality quality : dataQuality.getQualities() ) {
+				if( quality.getInterval_start() == null ) {
+					int column = column( quality.getName() );
+					columns[column][row] = Conversion.stringToDouble( quality.getValue() );
+				}
+			}
+		}
+		version += 1;
+	}
+	
+	public int numRows() {
+		return rows;
+	}
+	
+	public int numColumns() {
+		return names.length;
+	}
+	
+	/**
+	 * @return A number that changes whenever the matrix is updated, so that derived indexes can detect staleness
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	public int getDid( int row ) {
+		return dids[row];
+	}
+	
+	/**
+	 * @return The status of the data set in a row (e.g., active), or null if unknown
+	 */
+	public String getStatus( int row ) {
+		return statuses[row];
+	}
+	
+	/**
+	 * @return The row of a data set, or -1 if it is not in the matrix
+	 */
+	public int rowOf( int did ) {
+		Integer row = rowIndex.get( did );
+		return row == null ? -1 : row;
+	}
+	
+	public String getName( int column ) {
+		return names[column];
+	}
+	
+	/**
+	 * @return The names of all columns, in column order
+	 */
+	public String[] getNames() {
+		return names.clone();
+	}
+	
+	/**
+	 * @return The column of a quality, or -1 if no data set has it
+	 */
+	public int columnOf( String name ) {
+		Integer column = columnIndex.get( name );
+		return column == null ? -1 : column;
+	}
+	
+	public double getValue( int row, int column ) {
+		return columns[column][row];
+	}
+	
+	/**
+	 * @return The value of a quality for a data set, or NaN if it is missing
+	 */
+	public double getValue( int row, String name ) {
+		int column = columnOf( name );
+		return column < 0 ? Double.NaN : columns[column][row];
+	}
+	
+	/**
+	 * @return The values of a column, one per row
+	 */
+	public double[] getColumn( int column ) {
+		return Arrays.copyOf( columns[column], rows );
+	}
+	
+	/**
+	 * @return The values of a row, one per column
+	 */
+	public double[] getRow( int row ) {
+		double[] result = new double[names.length];
+		for( int column = 0; column < names.length; ++column ) {
+			result[column] = columns[column][row];
+		}
+		return result;
+	}
+	
+	/**
+	 * @return All values in a single array, row after row
+	 */
+	public double[] toRowMajor() {
+		double[] result = new double[rows * names.length];
+		for( int column = 0; column < names.length; ++column ) {
+			double[] values = columns[column];
+			for( int row = 0; row < rows; ++row ) {
+				result[row * names.length + column] = values[row];
+			}
+		}
+		return result;
+	}
+	
+	private int row( int did ) {
+		Integer row = rowIndex.get( did );
+		if( row != null ) {
+			// refreshed rows start empty, so that qualities that were removed do not linger
+			for( double[] column : columns ) {
+				column[row] = Double.NaN;
+			}
+			return row;
+		}
+		dids[rows] = did;
+		rowIndex.put( did, rows );
+		return rows++;
+	}
+	
+	private int column( String name ) {
+		Integer column = columnIndex.get( name );
+		if( column != null ) {
+			return column;
+		}
+		double[] values = new double[capacity];
+		Arrays.fill( values, Double.NaN );
+		columns = Arrays.copyOf( columns, columns.length + 1 );
+		columns[columns.length - 1] = values;
+		names = Arrays.copyOf( names, names.length + 1 );
+		names[names.length - 1] = name.intern();
+		columnIndex.put( names[names.length - 1], names.length - 1 );
+		return names.length - 1;
+	}
+	
+	private void ensureCapacity( int required ) {
+		if( required <= capacity ) {
+			return;
+		}
+		int newCapacity = Math.max( required, capacity * 2 );
+		dids = Arrays.copyOf( dids, newCapacity );
+		statuses = Arrays.copyOf( statuses, newCapacity );
+		for( int column = 0; column < columns.length; ++column ) {
+			columns[column] = Arrays.copyOf( columns[column], newCapacity );
+			Arrays.fill( columns[column], capacity, newCapacity, Double.NaN );
+		}
+		capacity = newCapacity;
+	}
+	
+	@Override
+	public String toString() {
+		return "[" + rows + " data sets, " + names.length + " qualities]";
+	}
+}
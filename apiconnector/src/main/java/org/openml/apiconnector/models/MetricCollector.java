@@ -22,43 +22,111 @@ package org.openml.apiconnector.models;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+
+import org.openml.apiconnector.algorithms.OnlineStatistics;
 
 public class MetricCollector {
 
-	private Map<Metric, ArrayList<MetricScore>> metrics;
+	private Map<Metric, OnlineStatistics> metrics;
 	
 	/**
 	 * Default Constructor. Bundles the scores of evaluation measures in one class.
-	 * All the scores of the same measure are stored in an arraylist, so that we can
-	 * calculate the standard deviation of it. 
+	 * All the scores of the same measure are stored in a primitive buffer with 
+	 * running statistics, so that the mean and standard deviation are available 
+	 * without another pass over the scores. 
 	 */
 	public MetricCollector() {
-		metrics = new HashMap<Metric, ArrayList<MetricScore>>();
+		metrics = new HashMap<Metric, OnlineStatistics>();
 	}
 	
 	/**
-	 * @param metricMap - A map containing metrics and their respective scores.
+	 * @param metricMap - A map containing metrics and their respective scores. 
+	 * Scores without a global value (e.g., confusion matrices) are skipped.
 	 */
 	public void add( Map<Metric, MetricScore> metricMap ) {
 		for( Metric m : metricMap.keySet() ) {
-			if( metrics.containsKey(m) == false ) {
-				
-				metrics.put(m, new ArrayList<MetricScore>());
+			Double score = metricMap.get(m).getScore();
+			if( score != null ) {
+				add( m, score );
 			}
-			metrics.get(m).add( metricMap.get(m) );
 		}
 	}
 	
+	/**
+	 * @param m - The measure
+	 * @param score - A score of the measure
+	 */
+	public void add( Metric m, double score ) {
+		OnlineStatistics statistics = metrics.get( m );
+		if( statistics == null ) {
+			statistics = new OnlineStatistics();
+			metrics.put( m, statistics );
+		}
+		statistics.add( score );
+	}
+	
+	/**
+	 * Adds all scores of another collector, e.g., one filled by a parallel worker. 
+	 * 
+	 * @param other - The collector to merge into this one
+	 */
+	public void merge( MetricCollector other ) {
+		for( Metric m : other.metrics.keySet() ) {
+			OnlineStatistics statistics = metrics.get( m );
+			if( statistics == null ) {
+				statistics = new OnlineStatistics();
+				metrics.put( m, statistics );
+			}
+			statistics.merge( other.metrics.get( m ) );
+		}
+	}
+	
+	/**
+	 * @return The measures of which scores were collected
+	 */
+	public Set<Metric> getMetrics() {
+		return metrics.keySet();
+	}
+	
+	/**
+	 * @param m - The measure of which the statistics should be returned
+	 * @return The scores and running statistics of measure m, or null if it has no scores
+	 */
+	public OnlineStatistics getStatistics( Metric m ) {
+		return metrics.get( m );
+	}
+	
+	/**
+	 * @param m - The measure
+	 * @return The mean score of measure m, or NaN if it has no scores
+	 */
+	public double getMean( Metric m ) {
+		OnlineStatistics statistics = metrics.get( m );
+		return statistics == null ? Double.NaN : statistics.getMean();
+	}
+	
+	/**
+	 * @param m - The measure
+	 * @param sample - Whether to calculate the sample (rather than population) standard deviation
+	 * @return The standard deviation of the scores of measure m, or NaN if it has no scores
+	 */
+	public double getStandardDeviation( Metric m, boolean sample ) {
+		OnlineStatistics statistics = metrics.get( m );
+		return statistics == null ? Double.NaN : statistics.getStandardDeviation( sample );
+	}
+	
 	/**
 	 * @param m - The measure of which the scores should be returned
 	 * @return An ArrayList containing all the scores of measure m
 	 */
 	public ArrayList<Double> getScores( Metric m ) {
-		ArrayList<MetricScore> metricscores = metrics.get( m );
 		ArrayList<Double> scores = new ArrayList<Double>();
-		for( MetricScore s : metricscores ) {
-			if( s.getScore() != null )
-				scores.add( s.getScore() );
+		OnlineStatistics statistics = metrics.get( m );
+		if( statistics != null ) {
+			for( double score : statistics.getValues() ) {
+				scores.add( score );
+			}
 		}
 		return scores;
 	}
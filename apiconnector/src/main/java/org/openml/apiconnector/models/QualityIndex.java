@@ -0,0 +1,305 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package org.openml.apiconnector.models;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Answers range queries over the qualities of a MetaFeatureMatrix, e.g., all
+ * active data sets with between 1000 and 100000 instances and fewer than 500
+ * features. Per quality it keeps the values in sorted order (built on first
+ * use), so that a range predicate is two binary searches; predicates are
+ * combined by intersecting bit sets over the rows of the matrix. Missing 
+ * values never satisfy a predicate. 
+ * 
+ * The index follows updates of the matrix: sorted columns are rebuilt on the
+ * first query after the matrix changed.
+ */
+public class QualityIndex {
+
+	private final MetaFeatureMatrix matrix;
+	private long version = -1;
+	private double[][] sortedValues;
+	private int[][] sortedRows;
+	private final Map<String, BitSet> statusRows = new HashMap<String, BitSet>();
+	
+	public QualityIndex( MetaFeatureMatrix matrix ) {
+		this.matrix = matrix;
+	}
+	
+	public MetaFeatureMatrix getMatrix() {
+		return matrix;
+	}
+	
+	/**
+	 * @return A new query, initially selecting all data sets
+	 */
+	public Query query() {
+		return new Query();
+	}
+	
+	/**
+	 * @param quality - The name of the quality
+	 * @param min - The lower bound, or NEGATIVE_INFINITY
+	 * @param minInclusive - Whether values equal to the lower bound are selected
+	 * @param max - The upper bound, or POSITIVE_INFINITY
+	 * @param maxInclusive - Whether values equal to the upper bound are selected
+	 * @return The rows of the data sets of which the quality lies in the range
+	 */
+	public BitSet range( String quality, double min, boolean minInclusive, double max, boolean maxInclusive ) {
+		BitSet result = new BitSet( matrix.numRows() );
+		int column = matrix.columnOf( quality );
+		if( column < 0 ) {
+			return result;
+		}
+		refresh();
+		double[] values = sortedValues( column );
+		int[] rows = sortedRows[column];
+		int from = minInclusive ? lowerBound( values, min ) : upperBound( values, min );
+		int to = maxInclusive ? upperBound( values, max ) : lowerBound( values, max );
+		for( int i = from; i < to; ++i ) {
+			result.set( rows[i] );
+		}
+		return result;
+	}
+	
+	/**
+	 * @param status - The status, e.g., active
+	 * @return The rows of the data sets with the status
+	 */
+	public BitSet status( String status ) {
+		refresh();
+		BitSet rows = statusRows.get( status );
+		return rows == null ? new BitSet() : (BitSet) rows.clone();
+	}
+	
+	/**
+	 * @param candidates - The rows to choose from
+	 * @param quality - The name of the quality to order by
+	 * @param k - The maximum number of rows to return
+	 * @param descending - Whether the highest values come first
+	 * @return The (at most) k rows among the candidates with the highest or lowest values, 
+	 * in order. Rows for which the quality is missing are not returned.
+	 */
+	public int[] top( BitSet candidates, String quality, int k, boolean descending ) {
+		int column = matrix.columnOf( quality );
+		if( column < 0 || k <= 0 ) {
+			return new int[0];
+		}
+		refresh();
+		sortedValues( column );
+		int[] rows = sortedRows[column];
+		int[] result = new int[Math.min( k, candidates.cardinality() )];
+		int found = 0;
+		for( int i = 0; i < rows.length && found < result.length; ++i ) {
+			int row = rows[descending ? rows.length - 1 - i : i];
+			if( candidates.get( row ) ) {
+				result[found++] = row;
+			}
+		}
+		return Arrays.copyOf( result, found );
+	}
+	
+	/**
+	 * @return The data set ids of rows, in order of the rows
+	 */
+	public int[] getDids( BitSet rows ) {
+		int[] result = new int[rows.cardinality()];
+		int i = 0;
+		for( int row = rows.nextSetBit( 0 ); row >= 0; row = rows.nextSetBit( row + 1 ) ) {
+			result[i++] = matrix.getDid( row );
+		}
+		return result;
+	}
+	
+	/**
+	 * @return The data set ids of rows, in the given order
+	 */
+	public int[] getDids( int[] rows ) {
+		int[] result = new int[rows.length];
+		for( int i = 0; i < rows.length; ++i ) {
+			result[i] = matrix.getDid( rows[i] );
+		}
+		return result;
+	}
+	
+	// drops all sorted columns when the matrix changed since they were built
+	private void refresh() {
+		if( version == matrix.getVersion() && sortedValues.length == matrix.numColumns() ) {
+			return;
+		}
+		sortedValues = new double[matrix.numColumns()][];
+		sortedRows = new int[matrix.numColumns()][];
+		statusRows.clear();
+		for( int row = 0; row < matrix.numRows(); ++row ) {
+			String status = matrix.getStatus( row );
+			if( status == null ) continue;
+			BitSet rows = statusRows.get( status );
+			if( rows == null ) {
+				rows = new BitSet( matrix.numRows() );
+				statusRows.put( status, rows );
+			}
+			rows.set( row );
+		}
+		version = matrix.getVersion();
+	}
+	
+	private double[] sortedValues( int column ) {
+		if( sortedValues[column] != null ) {
+			return sortedValues[column];
+		}
+		double[] values = matrix.getColumn( column );
+		// the rows of non-missing values, ordered by value
+		int count = 0;
+		for( double value : values ) {
+			if( Double.isNaN( value ) == false ) count += 1;
+		}
+		Integer[] order = new Integer[count];
+		count = 0;
+		for( int row = 0; row < values.length; ++row ) {
+			if( Double.isNaN( values[row] ) == false ) order[count++] = row;
+		}
+		final double[] columnValues = values;
+		Arrays.sort( order, new Comparator<Integer>() {
+			@Override
+			public int compare( Integer a, Integer b ) {
+				return Double.compare( columnValues[a], columnValues[b] );
+			}
+		} );
+		int[] rows = new int[count];
+		double[] sorted = new double[count];
+		for( int i = 0; i < count; ++i ) {
+			rows[i] = order[i];
+			sorted[i] = values[order[i]];
+		}
+		sortedRows[column] = rows;
+		sortedValues[column] = sorted;
+		return sorted;
+	}
+	
+	// first position with a value >= key
+	private static int lowerBound( double[] values, double key ) {
+		int low = 0;
+		int high = values.length;
+		while( low < high ) {
+			int middle = ( low + high ) >>> 1;
+			if( values[middle] < key ) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	// first position with a value > key
+	private static int upperBound( double[] values, double key ) {
+		int low = 0;
+		int high = values.length;
+		while( low < high ) {
+			int middle = ( low + high ) >>> 1;
+			if( values[middle] <= key ) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * A conjunction of predicates, e.g., 
+	 * index.query().status( "active" ).between( "NumberOfInstances", 1000, 100000 ).lessThan( "NumberOfFeatures", 500 ).getDids()
+	 */
+	public class Query {
+		private BitSet rows;
+		
+		private Query() {
+			rows = new BitSet( matrix.numRows() );
+			rows.set( 0, matrix.numRows() );
+		}
+		
+		public Query status( String status ) {
+			rows.and( QualityIndex.this.status( status ) );
+			return this;
+		}
+		
+		/**
+		 * Selects data sets with min <= quality <= max.
+		 */
+		public Query between( String quality, double min, double max ) {
+			return range( quality, min, true, max, true );
+		}
+		
+		public Query lessThan( String quality, double max ) {
+			return range( quality, Double.NEGATIVE_INFINITY, true, max, false );
+		}
+		
+		public Query atMost( String quality, double max ) {
+			return range( quality, Double.NEGATIVE_INFINITY, true, max, true );
+		}
+		
+		public Query greaterThan( String quality, double min ) {
+			return range( quality, min, false, Double.POSITIVE_INFINITY, true );
+		}
+		
+		public Query atLeast( String quality, double min ) {
+			return range( quality, min, true, Double.POSITIVE_INFINITY, true );
+		}
+		
+		public Query equalTo( String quality, double value ) {
+			return range( quality, value, true, value, true );
+		}
+		
+		public Query range( String quality, double min, boolean minInclusive, double max, boolean maxInclusive ) {
+			rows.and( QualityIndex.this.range( quality, min, minInclusive, max, maxInclusive ) );
+			return this;
+		}
+		
+		/**
+		 * @return The selected rows of the matrix. Not a copy.
+		 */
+		public BitSet getRows() {
+			return rows;
+		}
+		
+		public int count() {
+			return rows.cardinality();
+		}
+		
+		/**
+		 * @return The ids of the selected data sets, in order of the rows
+		 */
+		public int[] getDids() {
+			return QualityIndex.this.getDids( rows );
+		}
+		
+		/**
+		 * @return The ids of the (at most) k selected data sets with the highest or lowest value of a quality
+		 */
+		public int[] top( String quality, int k, boolean descending ) {
+			return QualityIndex.this.getDids( QualityIndex.this.top( rows, quality, k, descending ) );
+		}
+	}
+}
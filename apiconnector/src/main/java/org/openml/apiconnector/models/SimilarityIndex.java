@@ -0,0 +1,276 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package org.openml.apiconnector.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openml.apiconnector.algorithms.Conversion;
+import org.openml.apiconnector.xml.DataQuality;
+
+/**
+ * Finds the data sets that are most similar to a given data set in
+ * meta-feature space, e.g., to warm-start experiments. Quality vectors are
+ * kept in one row-major double[] and scanned in blocks; per feature the
+ * values are scaled to [0, 1] by the range over all indexed data sets. The 
+ * raw values are stored and the scaling is applied while scanning, so that 
+ * adding a data set does not renormalise the others.
+ * 
+ * Features that are missing in either vector are left out of the distance,
+ * which is then scaled up to the full number of features. Data sets that
+ * share no features with the query are not returned.
+ */
+public class SimilarityIndex {
+
+	public enum Distance { EUCLIDEAN, MANHATTAN, CHEBYSHEV }
+	
+	private static final int BLOCK_SIZE = 256;
+	
+	private final String[] features;
+	private final Map<String, Integer> featureIndex = new HashMap<String, Integer>();
+	private final Distance distance;
+	
+	private int rows = 0;
+	private int[] dids = new int[16];
+	private double[] vectors;
+	private final Map<Integer, Integer> rowIndex = new HashMap<Integer, Integer>();
+	private final double[] min;
+	private final double[] max;
+	
+	/**
+	 * Indexes all data sets of a matrix on all its qualities, with euclidean distance.
+	 */
+	public SimilarityIndex( MetaFeatureMatrix matrix ) {
+		this( matrix, matrix.getNames(), Distance.EUCLIDEAN );
+	}
+	
+	/**
+	 * @param matrix - The data sets to index (may be empty)
+	 * @param features - The names of the qualities to compare data sets on
+	 * @param distance - The distance between scaled quality vectors
+	 */
+	public SimilarityIndex( MetaFeatureMatrix matrix, String[] features, Distance distance ) {
+		this.features = features.clone();
+		this.distance = distance;
+		for( int j = 0; j < features.length; ++j ) {
+			featureIndex.put( features[j], j );
+		}
+		vectors = new double[dids.length * features.length];
+		min = new double[features.length];
+		max = new double[features.length];
+		Arrays.fill( min, Double.POSITIVE_INFINITY );
+		Arrays.fill( max, Double.NEGATIVE_INFINITY );
+		
+		int[] columns = new int[features.length];
+		for( int j = 0; j < features.length; ++j ) {
+			columns[j] = matrix.columnOf( features[j] );
+		}
+		double[] vector = new double[features.length];
+		for( int row = 0; row < matrix.numRows(); ++row ) {
+			for( int j = 0; j < features.length; ++j ) {
+				vector[j] = columns[j] < 0 ? Double.NaN : matrix.getValue( row, columns[j] );
+			}
+			add( matrix.getDid( row ), vector );
+		}
+	}
+	
+	public String[] getFeatures() {
+		return features.clone();
+	}
+	
+	public Distance getDistance() {
+		return distance;
+	}
+	
+	public int size() {
+		return rows;
+	}
+	
+	/**
+	 * Adds a data set, or replaces its vector if it was indexed before.
+	 * 
+	 * @param did - The id of the data set
+	 * @param vector - The raw quality values, in order of getFeatures(), with NaN for missing values
+	 */
+	public void add( int did, double[] vector ) {
+		if( vector.length != features.length ) {
+			throw new IllegalArgumentException( "Expected " + features.length + " features, got " + vector.length + ". " );
+		}
+		Integer row = rowIndex.get( did );
+		if( row == null ) {
+			if( rows == dids.length ) {
+				dids = Arrays.copyOf( dids, rows * 2 );
+				vectors = Arrays.copyOf( vectors, dids.length * features.length );
+			}
+			row = rows++;
+			dids[row] = did;
+			rowIndex.put( did, row );
+		}
+		System.arraycopy( vector, 0, vectors, row * features.length, features.length );
+		// ranges only widen, so a replaced vector may leave a range slightly too wide
+		for( int j = 0; j < features.length; ++j ) {
+			if( Double.isNaN( vector[j] ) == false ) {
+				min[j] = Math.min( min[j], vector[j] );
+				max[j] = Math.max( max[j], vector[j] );
+			}
+		}
+	}
+	
+	/**
+	 * Adds a newly uploaded data set, e.g., from dataQuality(did). Qualities 
+	 * that were calculated on an interval are skipped.
+	 */
+	public void add( DataQuality dataQuality ) {
+		add( dataQuality.getDid(), vector( dataQuality ) );
+	}
+	
+	/**
+	 * @return The raw quality values of a data set, in order of getFeatures(), with NaN for missing values
+	 */
+	public double[] vector( DataQuality dataQuality ) {
+		double[] vector = new double[features.length];
+		Arrays.fill( vector, Double.NaN );
+		if( dataQuality.getQualities() != null ) {
+			for( DataQuality.Quality quality : dataQuality.getQualities() ) {
+				Integer j = featureIndex.get( quality.getName() );
+				if( j != null && quality.getInterval_start() == null ) {
+					vector[j] = Conversion.stringToDouble( quality.getValue() );
+				}
+			}
+		}
+		return vector;
+	}
+	
+	/**
+	 * @param did - An indexed data set
+	 * @param k - The number of neighbours
+	 * @return The (at most) k nearest other data sets, nearest first
+	 */
+	public List<Neighbour> nearest( int did, int k ) {
+		Integer row = rowIndex.get( did );
+		if( row == null ) {
+			throw new IllegalArgumentException( "Data set " + did + " is not indexed. " );
+		}
+		double[] query = Arrays.copyOfRange( vectors, row * features.length, ( row + 1 ) * features.length );
+		return nearest( query, k, did );
+	}
+	
+	/**
+	 * @param query - Raw quality values, in order of getFeatures(), with NaN for missing values
+	 * @param k - The number of neighbours
+	 * @return The (at most) k nearest data sets, nearest first
+	 */
+	public List<Neighbour> nearest( double[] query, int k ) {
+		return nearest( query, k, null );
+	}
+	
+	private List<Neighbour> nearest( double[] query, int k, Integer exclude ) {
+		if( query.length != features.length ) {
+			throw new IllegalArgumentException( "Expected " + features.length + " features, got " + query.length + ". " );
+		}
+		int d = features.length;
+		double[] scale = new double[d];
+		for( int j = 0; j < d; ++j ) {
+			scale[j] = max[j] > min[j] ? 1.0 / ( max[j] - min[j] ) : 0.0;
+		}
+		
+		// the k best so far, sorted by distance
+		int[] bestRows = new int[Math.max( 0, k )];
+		double[] bestDistances = new double[bestRows.length];
+		int found = 0;
+		double[] block = new double[BLOCK_SIZE];
+		for( int start = 0; start < rows && k > 0; start += BLOCK_SIZE ) {
+			int end = Math.min( rows, start + BLOCK_SIZE );
+			for( int row = start; row < end; ++row ) {
+				block[row - start] = distance( query, row * d, scale );
+			}
+			for( int row = start; row < end; ++row ) {
+				double value = block[row - start];
+				if( Double.isNaN( value ) || ( exclude != null && dids[row] == exclude ) ) continue;
+				if( found == k && value >= bestDistances[k - 1] ) continue;
+				int i = found < k ? found++ : k - 1;
+				while( i > 0 && bestDistances[i - 1] > value ) {
+					bestDistances[i] = bestDistances[i - 1];
+					bestRows[i] = bestRows[i - 1];
+					i -= 1;
+				}
+				bestDistances[i] = value;
+				bestRows[i] = row;
+			}
+		}
+		
+		List<Neighbour> result = new ArrayList<Neighbour>( found );
+		for( int i = 0; i < found; ++i ) {
+			result.add( new Neighbour( dids[bestRows[i]], bestDistances[i] ) );
+		}
+		return result;
+	}
+	
+	private double distance( double[] query, int offset, double[] scale ) {
+		int d = features.length;
+		double total = 0;
+		int used = 0;
+		for( int j = 0; j < d; ++j ) {
+			double difference = ( query[j] - vectors[offset + j] ) * scale[j];
+			if( Double.isNaN( difference ) ) continue;
+			used += 1;
+			difference = Math.abs( difference );
+			switch( distance ) {
+				case EUCLIDEAN: total += difference * difference; break;
+				case MANHATTAN: total += difference; break;
+				case CHEBYSHEV: total = Math.max( total, difference ); break;
+			}
+		}
+		if( used == 0 ) {
+			return Double.NaN;
+		}
+		switch( distance ) {
+			case EUCLIDEAN: return Math.sqrt( total * d / used );
+			case MANHATTAN: return total * d / used;
+			default: return total;
+		}
+	}
+	
+	public static class Neighbour {
+		private final int did;
+		private final double distance;
+		
+		public Neighbour( int did, double distance ) {
+			this.did = did;
+			this.distance = distance;
+		}
+		
+		public int getDid() {
+			return did;
+		}
+		
+		public double getDistance() {
+			return distance;
+		}
+		
+		@Override
+		public String toString() {
+			return "[did " + did + ", distance " + distance + "]";
+		}
+	}
+}
@@ -34,6 +34,11 @@ public class Settings {
 	 * Whether caching is allowed. Keep value to true.
 	 */
 	public static boolean CACHE_ALLOWED = true;
+	/**
+	 * Maximal number of deserialized API objects that are kept in memory,
+	 * in front of the cache directory. Set to 0 to disable the memory cache.
+	 */
+	public static int CACHE_MEMORY_SIZE = 1024;
 	/**
 	 * Use on servers. In this case no download / upload operations will be used, just cache. 
 	 */
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.Serializable;
 
 import org.openml.apiconnector.algorithms.ArffHelper;
+import org.openml.apiconnector.algorithms.DataSplits;
 import org.openml.apiconnector.algorithms.OptionParser;
 import org.openml.apiconnector.io.OpenmlConnector;
 import org.openml.apiconnector.settings.Constants;
@@ -162,6 +163,7 @@ public class Task implements Serializable {
 			
 			// do not serialize
 			private File data_splits_cache;
+			private transient DataSplits data_splits_index;
 			
 			public String getType() {
 				return type;
@@ -187,6 +189,16 @@ public class Task implements Serializable {
 				}
 				return data_splits_cache;
 			}
+			
+			/**
+			 * @return The data splits indexed by repeat, fold, sample and type. Built once and cached next to the splits file.
+			 */
+			public DataSplits getDataSplitsIndex( int task_id ) throws IOException {
+				if( data_splits_index == null ) {
+					data_splits_index = DataSplits.load( getDataSplits( task_id ) );
+				}
+				return data_splits_index;
+			}
 
 			public class Parameter implements Serializable {
 				private static final long serialVersionUID = 987612341099L;
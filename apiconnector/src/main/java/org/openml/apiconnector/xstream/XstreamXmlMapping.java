@@ -23,20 +23,70 @@ import org.openml.apiconnector.xml.*;
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.converters.extended.ToAttributedValueConverter;
+import com.thoughtworks.xstream.io.HierarchicalStreamDriver;
 import com.thoughtworks.xstream.io.naming.NoNameCoder;
 import com.thoughtworks.xstream.io.xml.DomDriver;
+import com.thoughtworks.xstream.io.xml.XppDriver;
 
 public class XstreamXmlMapping {
 
     /**
-     * Generates a bidirectional mapping between the XML Objects (server) and
-     * the Java Objects (OpenmlApiConnector package opg.openml.apiconnector.xml).
+     * Initialization-on-demand holder; the shared mapping is built once per
+     * class loader, the first time it is requested.
+     */
+    private static class Holder {
+        private static final XStream INSTANCE = newInstance();
+    }
+
+    private static class StreamingHolder {
+        private static final XStream INSTANCE = newInstance(new XppDriver(new NoNameCoder()));
+    }
+
+    /**
+     * Returns the shared bidirectional mapping between the XML Objects (server)
+     * and the Java Objects (OpenmlApiConnector package opg.openml.apiconnector.xml).
+     * Once configured, XStream can be used by multiple threads concurrently
+     * for toXML and fromXML. The returned instance is shared, so it should
+     * never be reconfigured; use newInstance() for a private copy.
      *
      * @return XStream - An XStream instance capable of mapping XML objects and
      * OpenmlApiConnector Objects to each other.
      */
     public static XStream getInstance() {
-        XStream xstream = new XStream(new DomDriver("UFT-8", new NoNameCoder()));
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Returns a shared mapping that is equal to getInstance(), but reads XML
+     * with a pull parser instead of building a DOM first. Use it to parse
+     * directly from an InputStream or Reader, so that large responses never
+     * need to be held in memory as text or as a document tree.
+     *
+     * @return XStream - An XStream instance backed by a pull parser.
+     */
+    public static XStream getStreamingInstance() {
+        return StreamingHolder.INSTANCE;
+    }
+
+    /**
+     * Generates a new bidirectional mapping between the XML Objects (server) and
+     * the Java Objects (OpenmlApiConnector package opg.openml.apiconnector.xml).
+     * This is expensive; only use it when the mapping needs to be modified.
+     *
+     * @return XStream - An XStream instance capable of mapping XML objects and
+     * OpenmlApiConnector Objects to each other.
+     */
+    public static XStream newInstance() {
+        return newInstance(new DomDriver("UFT-8", new NoNameCoder()));
+    }
+
+    /**
+     * @param driver - The driver used for reading and writing XML
+     * @return XStream - A new XStream instance capable of mapping XML objects and
+     * OpenmlApiConnector Objects to each other.
+     */
+    public static XStream newInstance(HierarchicalStreamDriver driver) {
+        XStream xstream = new XStream(driver);
         xstream.ignoreUnknownElements();
 
         // data
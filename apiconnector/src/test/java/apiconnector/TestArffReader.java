@@ -0,0 +1,189 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.openml.apiconnector.algorithms.ArffAttribute;
+import org.openml.apiconnector.algorithms.ArffDataset;
+import org.openml.apiconnector.algorithms.ArffHeader;
+import org.openml.apiconnector.algorithms.ArffReader;
+
+public class TestArffReader {
+
+	private static final String HEADER = 
+		"% a comment\n" +
+		"@relation 'test relation'\n" +
+		"@attribute width numeric\n" +
+		"@attribute 'quoted name' {'red, dark',green,\"blue\"}\n" +
+		"@attribute description string\n" +
+		"@attribute moment date \"yyyy-MM-dd HH:mm:ss\"\n" +
+		"@attribute class {yes,no}\n" +
+		"@data\n";
+	
+	/**
+	 * Reads a small file with quoted, missing and date values and checks 
+	 * every value.
+	 */
+	@Test
+	public void testReadDense() throws IOException {
+		File arff = write( HEADER +
+			"1.5,'red, dark','it\\'s here',\"2014-01-02 03:04:05\",yes\n" +
+			"% a comment between rows\n" +
+			"\n" +
+			"-2e3,green,\"say \\\"hi\\\"\",?,no\n" +
+			"?,?,?,'2015-06-07 08:09:10',?\n" +
+			"0,blue,plain,\"2014-01-02 03:04:05\",yes\n" );
+		
+		ArffHeader header = ArffReader.readHeader( arff );
+		assertEquals( "test relation", header.getRelation() );
+		assertEquals( 5, header.numAttributes() );
+		assertEquals( ArffAttribute.Type.NUMERIC, header.getAttribute( "width" ).getType() );
+		assertArrayEquals( new String[] { "red, dark", "green", "blue" }, header.getAttribute( "quoted name" ).getValues() );
+		assertEquals( ArffAttribute.Type.STRING, header.getAttribute( 2 ).getType() );
+		assertEquals( ArffAttribute.Type.DATE, header.getAttribute( 3 ).getType() );
+		assertEquals( "yyyy-MM-dd HH:mm:ss", header.getAttribute( 3 ).getDateFormat() );
+		
+		ArffDataset dataset = ArffReader.read( arff );
+		assertEquals( 4, dataset.numInstances() );
+		assertArrayEquals( new double[] { 1.5, -2000.0, Double.NaN, 0.0 }, dataset.getNumericColumn( 0 ), 0.0 );
+		assertArrayEquals( new int[] { 0, 1, ArffDataset.MISSING_CODE, 2 }, dataset.getCodes( 1 ) );
+		assertEquals( "red, dark", dataset.stringValue( 0, 1 ) );
+		assertEquals( "it's here", dataset.stringValue( 0, 2 ) );
+		assertEquals( "say \"hi\"", dataset.stringValue( 1, 2 ) );
+		assertEquals( "plain", dataset.stringValue( 3, 2 ) );
+		assertEquals( "2014-01-02 03:04:05", dataset.stringValue( 0, 3 ) );
+		assertEquals( "2015-06-07 08:09:10", dataset.stringValue( 2, 3 ) );
+		// equal dates share a code
+		assertEquals( dataset.getCodes( 3 )[0], dataset.getCodes( 3 )[3] );
+		for( int attribute = 0; attribute < 5; ++attribute ) {
+			assertTrue( dataset.isMissing( 2, attribute ) ^ attribute == 3 );
+		}
+		assertTrue( dataset.isMissing( 1, 3 ) );
+		assertNull( dataset.stringValue( 1, 3 ) );
+		assertArrayEquals( new int[] { 0, 1, ArffDataset.MISSING_CODE, 0 }, dataset.getCodes( 4 ) );
+	}
+	
+	@Test
+	public void testLastLineWithoutNewline() throws IOException {
+		File arff = write( HEADER + "1,green,a,?,yes\n2,blue,b,?,no" );
+		ArffDataset dataset = ArffReader.read( arff );
+		assertEquals( 2, dataset.numInstances() );
+		assertEquals( 2.0, dataset.value( 1, 0 ), 0.0 );
+		assertEquals( "no", dataset.stringValue( 1, 4 ) );
+	}
+	
+	/**
+	 * A file of several megabytes is split into chunks that are parsed in 
+	 * parallel; the result should be identical to a sequential read.
+	 */
+	@Test
+	public void testParallelEqualsSequential() throws Exception {
+		StringBuilder content = new StringBuilder( HEADER );
+		Random random = new Random( 42 );
+		String[] colours = { "'red, dark'", "green", "blue", "?" };
+		while( content.length() < 5 * 1024 * 1024 ) {
+			content.append( random.nextInt( 10 ) == 0 ? "?" : "" + random.nextGaussian() ).append( ',' );
+			content.append( colours[random.nextInt( colours.length )] ).append( ',' );
+			content.append( "'text " ).append( random.nextInt( 1000 ) ).append( "'," );
+			content.append( random.nextInt( 10 ) == 0 ? "?" : "'2014-01-0" + ( 1 + random.nextInt( 9 ) ) + " 00:00:00'" ).append( ',' );
+			content.append( random.nextBoolean() ? "yes" : "no" ).append( '\n' );
+		}
+		File arff = write( content.toString() );
+		
+		ArffDataset sequential = ArffReader.read( arff );
+		ArffDataset parallel = ArffReader.read( arff, 4 );
+		assertSameContent( sequential, parallel );
+		
+		ExecutorService executor = Executors.newFixedThreadPool( 3 );
+		try {
+			assertSameContent( sequential, ArffReader.read( arff, executor, 7 ) );
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * A wide file in parallel: the columns reserved per chunk should not grow 
+	 * with the number of attributes times the size of the chunk.
+	 */
+	@Test
+	public void testParallelWideFile() throws Exception {
+		int numAttributes = 2000;
+		StringBuilder content = new StringBuilder( "@relation wide\n" );
+		for( int a = 0; a < numAttributes; ++a ) {
+			content.append( "@attribute a" ).append( a ).append( " numeric\n" );
+		}
+		content.append( "@data\n" );
+		Random random = new Random( 1 );
+		int numInstances = 0;
+		while( content.length() < 16 * 1024 * 1024 ) {
+			for( int a = 0; a < numAttributes; ++a ) {
+				content.append( a == 0 ? "" : "," ).append( random.nextInt( 1000 ) );
+			}
+			content.append( '\n' );
+			numInstances += 1;
+		}
+		File arff = write( content.toString() );
+		
+		ArffDataset parallel = ArffReader.read( arff, 4 );
+		assertEquals( numInstances, parallel.numInstances() );
+		assertSameContent( ArffReader.read( arff ), parallel );
+	}
+	
+	@Test( expected = IOException.class )
+	public void testUndeclaredNominalValue() throws IOException {
+		ArffReader.read( write( HEADER + "1,purple,a,?,yes\n" ) );
+	}
+	
+	private static void assertSameContent( ArffDataset expected, ArffDataset actual ) {
+		assertEquals( expected.numInstances(), actual.numInstances() );
+		for( int a = 0; a < expected.numAttributes(); ++a ) {
+			if( expected.getHeader().getAttribute( a ).isNumeric() ) {
+				assertArrayEquals( expected.getNumericColumn( a ), actual.getNumericColumn( a ), 0.0 );
+			} else {
+				assertArrayEquals( expected.getDictionary( a ), actual.getDictionary( a ) );
+				assertArrayEquals( expected.getCodes( a ), actual.getCodes( a ) );
+			}
+		}
+	}
+	
+	static File write( String content ) throws IOException {
+		File file = File.createTempFile( "openml-test", ".arff" );
+		file.deleteOnExit();
+		Writer writer = new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" );
+		try {
+			writer.write( content );
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+}
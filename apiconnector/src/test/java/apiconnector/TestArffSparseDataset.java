@@ -0,0 +1,87 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.openml.apiconnector.algorithms.ArffReader;
+import org.openml.apiconnector.algorithms.ArffSparseDataset;
+
+public class TestArffSparseDataset {
+
+	private static final String HEADER = 
+		"@relation sparse\n" +
+		"@attribute a numeric\n" +
+		"@attribute b numeric\n" +
+		"@attribute text string\n" +
+		"@attribute class {yes,no}\n" +
+		"@data\n";
+	
+	/**
+	 * Parses sorted, unsorted, empty and dense rows into compressed sparse rows.
+	 */
+	@Test
+	public void testReadSparse() throws IOException {
+		File arff = TestArffReader.write( HEADER +
+			"{0 1.5, 3 no}\n" +
+			"{3 yes, 1 -2, 2 'some text'}\n" +
+			"{}\n" +
+			"{1 ?, 2 other}\n" +
+			"4,5,'some text',no\n" );
+		ArffSparseDataset dataset = ArffReader.readSparse( arff );
+		
+		assertEquals( 5, dataset.numInstances() );
+		assertEquals( 4, dataset.numAttributes() );
+		int[] rowPointers = dataset.getRowPointers();
+		assertEquals( 0, rowPointers[0] );
+		assertEquals( 2, rowPointers[1] );
+		assertEquals( 5, rowPointers[2] );
+		assertEquals( 5, rowPointers[3] );
+		assertEquals( 7, rowPointers[4] );
+		assertEquals( dataset.numEntries(), rowPointers[5] );
+		
+		// entries of an unsorted row are sorted by attribute index
+		assertArrayEquals( new int[] { 0, 3, 1, 2, 3, 1, 2 }, Arrays.copyOf( dataset.getIndices(), 7 ) );
+		assertArrayEquals( new double[] { 1.5, 1, -2, 0, 0 }, Arrays.copyOf( dataset.getValues(), 5 ), 0.0 );
+		
+		assertEquals( 1.5, dataset.value( 0, 0 ), 0.0 );
+		assertEquals( 0.0, dataset.value( 0, 1 ), 0.0 );
+		assertEquals( "no", dataset.stringValue( 0, 3 ) );
+		assertEquals( "yes", dataset.stringValue( 1, 3 ) );
+		assertEquals( "some text", dataset.stringValue( 1, 2 ) );
+		assertEquals( "other", dataset.stringValue( 3, 2 ) );
+		assertEquals( "some text", dataset.stringValue( 4, 2 ) );
+		assertArrayEquals( new String[] { "some text", "other" }, dataset.getDictionary( 2 ) );
+		assertArrayEquals( new double[] { 0, 0, 0, 0 }, dataset.denseRow( 2 ), 0.0 );
+		assertTrue( dataset.isMissing( 3, 1 ) );
+		assertFalse( dataset.isMissing( 3, 0 ) );
+		assertArrayEquals( new double[] { 4, 5, 0, 1 }, dataset.denseRow( 4 ), 0.0 );
+	}
+	
+	@Test( expected = IOException.class )
+	public void testDuplicateIndex() throws IOException {
+		ArffReader.readSparse( TestArffReader.write( HEADER + "{0 1, 0 2}\n" ) );
+	}
+}
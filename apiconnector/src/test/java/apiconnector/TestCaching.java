@@ -0,0 +1,123 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openml.apiconnector.algorithms.Caching;
+import org.openml.apiconnector.algorithms.LruCache;
+import org.openml.apiconnector.settings.Settings;
+import org.openml.apiconnector.xml.DataQuality;
+
+public class TestCaching {
+
+	// a type of its own, so that the cache directory of the user is not touched otherwise
+	private final String type = "test-caching-" + System.nanoTime();
+	
+	@After
+	public void cleanUp() {
+		File directory = new File( Settings.CACHE_DIRECTORY + "/" + type );
+		File[] files = directory.listFiles();
+		if( files != null ) {
+			for( File file : files ) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+	
+	@Test
+	public void testLruEviction() {
+		LruCache<String, Integer> cache = new LruCache<String, Integer>( 2 );
+		cache.put( "a", 1 );
+		cache.put( "b", 2 );
+		assertEquals( Integer.valueOf( 1 ), cache.get( "a" ) ); // b is now least recently used
+		cache.put( "c", 3 );
+		assertNull( cache.get( "b" ) );
+		assertEquals( Integer.valueOf( 1 ), cache.get( "a" ) );
+		assertEquals( Integer.valueOf( 3 ), cache.get( "c" ) );
+		assertEquals( 2, cache.size() );
+		assertEquals( 1, cache.getEvictions() );
+		assertEquals( 3, cache.getHits() );
+		assertEquals( 1, cache.getMisses() );
+		
+		// shrinking evicts the least recently used entries
+		cache.setCapacity( 1 );
+		assertEquals( 1, cache.size() );
+		assertNull( cache.get( "a" ) );
+		assertEquals( Integer.valueOf( 3 ), cache.get( "c" ) );
+		assertEquals( 2, cache.getEvictions() );
+		
+		LruCache<String, Integer> disabled = new LruCache<String, Integer>( 0 );
+		disabled.put( "a", 1 );
+		assertNull( disabled.get( "a" ) );
+		assertEquals( 0, disabled.size() );
+	}
+	
+	@Test
+	public void testTimeToLive() throws Exception {
+		assertEquals( Caching.DEFAULT_TIME_TO_LIVE, Caching.getTimeToLive( type ) );
+		Caching.cache( quality( "1" ), type, 1 );
+		assertTrue( Caching.lookup( type, 1 ).isFresh() );
+		Caching.setTimeToLive( type, 0 );
+		assertFalse( Caching.lookup( type, 1 ).isFresh() );
+		
+		// an entry from the cache directory is as old as its file
+		Caching.setTimeToLive( type, 60 * 1000L );
+		Caching.getMemoryCache().clear();
+		File file = Caching.cached( type, 1 );
+		assertTrue( file.setLastModified( System.currentTimeMillis() - 120 * 1000L ) );
+		Caching.Entry entry = Caching.lookup( type, 1 );
+		assertFalse( entry.isFresh() );
+		assertEquals( "1", ( (DataQuality) entry.getValue() ).getQualities()[0].getValue() );
+		
+		// revalidation restarts the time to live
+		Caching.revalidated( entry );
+		assertTrue( Caching.lookup( type, 1 ).isFresh() );
+		assertTrue( System.currentTimeMillis() - file.lastModified() < 60 * 1000L );
+		assertNull( Caching.lookup( type, 2 ) );
+	}
+	
+	@Test
+	public void testCallersGetCopies() throws Exception {
+		Caching.cache( quality( "1" ), type, 1 );
+		DataQuality first = (DataQuality) Caching.get( type, 1 );
+		first.getQualities()[0] = new DataQuality.Quality( "NumberOfInstances", "2" );
+		
+		DataQuality second = (DataQuality) Caching.load( type, 1 );
+		assertNotSame( first, second );
+		assertEquals( "1", second.getQualities()[0].getValue() );
+		assertEquals( "1", ( (DataQuality) Caching.lookup( type, 1 ).getValue() ).getQualities()[0].getValue() );
+		
+		// also for objects that were read from the cache directory
+		Caching.getMemoryCache().clear();
+		DataQuality loaded = (DataQuality) Caching.load( type, 1 );
+		loaded.getQualities()[0] = new DataQuality.Quality( "NumberOfInstances", "3" );
+		assertEquals( "1", ( (DataQuality) Caching.load( type, 1 ) ).getQualities()[0].getValue() );
+	}
+	
+	private static DataQuality quality( String numberOfInstances ) {
+		return new DataQuality( 1, new DataQuality.Quality[] { new DataQuality.Quality( "NumberOfInstances", numberOfInstances ) } );
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.openml.apiconnector.algorithms.ArffDataset;
+import org.openml.apiconnector.algorithms.ArffReader;
+import org.openml.apiconnector.algorithms.ColumnarCache;
+
+public class TestColumnarCache {
+
+	private static final String MD5 = "0123456789abcdef0123456789abcdef";
+	
+	/**
+	 * Writes a parsed data set to a columnar file and reads it back.
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		ArffDataset original = ArffReader.read( arff() );
+		File columns = temp();
+		ColumnarCache.write( columns, 61, MD5, original );
+		ArffDataset copy = ColumnarCache.read( columns, 61, MD5 );
+		
+		assertNotNull( copy );
+		assertEquals( original.getHeader().getRelation(), copy.getHeader().getRelation() );
+		assertEquals( original.getHeader().getDataOffset(), copy.getHeader().getDataOffset() );
+		assertEquals( original.numInstances(), copy.numInstances() );
+		assertEquals( original.numAttributes(), copy.numAttributes() );
+		for( int a = 0; a < original.numAttributes(); ++a ) {
+			assertEquals( original.getHeader().getAttribute( a ).getName(), copy.getHeader().getAttribute( a ).getName() );
+			assertEquals( original.getHeader().getAttribute( a ).getType(), copy.getHeader().getAttribute( a ).getType() );
+			if( original.getHeader().getAttribute( a ).isNumeric() ) {
+				assertArrayEquals( original.getNumericColumn( a ), copy.getNumericColumn( a ), 0.0 );
+			} else {
+				assertArrayEquals( original.getCodes( a ), copy.getCodes( a ) );
+				assertArrayEquals( original.getDictionary( a ), copy.getDictionary( a ) );
+			}
+		}
+		assertTrue( copy.isMissing( 3, 0 ) );
+		assertTrue( copy.isMissing( 5, 1 ) );
+		assertEquals( "value 4", copy.stringValue( 4, 2 ) );
+	}
+	
+	/**
+	 * A columnar file of another version of the ARFF file, or of another data
+	 * set, is not used.
+	 */
+	@Test
+	public void testStale() throws IOException {
+		File columns = temp();
+		ColumnarCache.write( columns, 61, MD5, ArffReader.read( arff() ) );
+		assertNull( ColumnarCache.read( columns, 61, "fedcba9876543210fedcba9876543210" ) );
+		assertNull( ColumnarCache.read( columns, 62, MD5 ) );
+	}
+	
+	@Test( expected = IOException.class )
+	public void testNotAColumnarFile() throws IOException {
+		File columns = temp();
+		FileOutputStream out = new FileOutputStream( columns );
+		try {
+			out.write( "@relation not columnar\n".getBytes( "UTF-8" ) );
+		} finally {
+			out.close();
+		}
+		ColumnarCache.read( columns, 61, MD5 );
+	}
+	
+	private static File arff() throws IOException {
+		StringBuilder content = new StringBuilder();
+		content.append( "@relation columns\n@attribute x numeric\n@attribute y {a,b,c}\n@attribute z string\n@data\n" );
+		for( int row = 0; row < 1001; ++row ) {
+			content.append( row % 3 == 0 ? "?" : "" + ( row * 0.25 - 7 ) ).append( ',' );
+			content.append( row % 5 == 0 ? "?" : "" + (char) ( 'a' + row % 3 ) ).append( ',' );
+			content.append( "'value " ).append( row % 7 ).append( "'\n" );
+		}
+		return TestArffReader.write( content.toString() );
+	}
+	
+	private static File temp() throws IOException {
+		File file = File.createTempFile( "openml-test", ColumnarCache.SUFFIX );
+		file.deleteOnExit();
+		return file;
+	}
+}
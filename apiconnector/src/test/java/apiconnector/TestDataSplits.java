@@ -0,0 +1,144 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.openml.apiconnector.algorithms.ArffReader;
+import org.openml.apiconnector.algorithms.ChecksumIndex;
+import org.openml.apiconnector.algorithms.DataSplits;
+
+public class TestDataSplits {
+
+	private static final String HEADER = 
+		"@relation splits\n" +
+		"@attribute type {TRAIN,TEST}\n" +
+		"@attribute rowid numeric\n" +
+		"@attribute repeat numeric\n" +
+		"@attribute fold numeric\n";
+	
+	/**
+	 * Two repeats of two folds over four rows, with the rows of a combination
+	 * not adjacent in the file.
+	 */
+	private static final String SPLITS = HEADER + "@data\n" +
+		"TEST,0,0,0\n" + "TRAIN,0,0,1\n" + "TEST,0,1,0\n" + "TRAIN,0,1,1\n" +
+		"TEST,1,0,0\n" + "TRAIN,1,0,1\n" + "TRAIN,1,1,0\n" + "TEST,1,1,1\n" +
+		"TRAIN,2,0,0\n" + "TEST,2,0,1\n" + "TEST,2,1,0\n" + "TRAIN,2,1,1\n" +
+		"TRAIN,3,0,0\n" + "TEST,3,0,1\n" + "TRAIN,3,1,0\n" + "TEST,3,1,1\n";
+	
+	@Test
+	public void testBuild() throws IOException {
+		DataSplits splits = DataSplits.build( ArffReader.read( TestArffReader.write( SPLITS ) ) );
+		assertSplits( splits );
+		
+		try {
+			splits.getTest( 2, 0, 0 );
+			fail( "Repeat 2 does not exist. " );
+		} catch( IndexOutOfBoundsException e ) {}
+		try {
+			splits.get( 0, 0, 0, "VALIDATION" );
+			fail( "Type VALIDATION does not exist. " );
+		} catch( IllegalArgumentException e ) {}
+	}
+	
+	@Test
+	public void testSamples() throws IOException {
+		String arff = 
+			"@relation splits\n" +
+			"@attribute type {TRAIN,TEST}\n" +
+			"@attribute rowid numeric\n" +
+			"@attribute repeat numeric\n" +
+			"@attribute fold numeric\n" +
+			"@attribute sample numeric\n" +
+			"@data\n" +
+			"TRAIN,0,0,0,0\n" + "TEST,1,0,0,0\n" + 
+			"TRAIN,0,0,0,1\n" + "TRAIN,2,0,0,1\n" + "TEST,1,0,0,1\n";
+		DataSplits splits = DataSplits.build( ArffReader.read( TestArffReader.write( arff ) ) );
+		assertEquals( 1, splits.numRepeats() );
+		assertEquals( 1, splits.numFolds() );
+		assertEquals( 2, splits.numSamples() );
+		assertArrayEquals( new int[] { 0 }, splits.getTrain( 0, 0, 0 ) );
+		assertArrayEquals( new int[] { 0, 2 }, splits.getTrain( 0, 0, 1 ) );
+		assertArrayEquals( new int[] { 1 }, splits.getTest( 0, 0, 1 ) );
+	}
+	
+	@Test( expected = IOException.class )
+	public void testMissingAttribute() throws IOException {
+		DataSplits.build( ArffReader.read( TestArffReader.write( 
+			"@relation splits\n@attribute type {TRAIN,TEST}\n@attribute rowid numeric\n@attribute fold numeric\n@data\nTRAIN,0,0\n" ) ) );
+	}
+	
+	/**
+	 * The index is stored next to the splits file and used by later loads, 
+	 * until the splits file changes.
+	 */
+	@Test
+	public void testIndexIsRebuiltWhenFileChanges() throws IOException {
+		File arff = TestArffReader.write( SPLITS );
+		File index = DataSplits.indexFile( arff );
+		index.deleteOnExit();
+		assertSplits( DataSplits.load( arff ) );
+		assertTrue( index.exists() );
+		assertSplits( DataSplits.read( index, ChecksumIndex.digest( arff ) ) );
+		assertNull( DataSplits.read( index, "another md5" ) );
+		
+		// an index that belongs to the current file is used as is
+		DataSplits other = new DataSplits( 1, 1, 1, new String[] { DataSplits.TRAIN }, new int[][] { { 7 } } );
+		other.write( index, ChecksumIndex.digest( arff ) );
+		assertArrayEquals( new int[] { 7 }, DataSplits.load( arff ).getTrain( 0, 0, 0 ) );
+		
+		// after the file changed, the index is built again
+		FileOutputStream out = new FileOutputStream( arff, true );
+		try {
+			out.write( "TEST,4,0,0\nTRAIN,4,0,1\nTRAIN,4,1,0\nTEST,4,1,1\n".getBytes( "UTF-8" ) );
+		} finally {
+			out.close();
+		}
+		DataSplits rebuilt = DataSplits.load( arff );
+		assertArrayEquals( new int[] { 0, 1, 4 }, rebuilt.getTest( 0, 0, 0 ) );
+		assertArrayEquals( new int[] { 0, 1, 4 }, DataSplits.read( index, ChecksumIndex.digest( arff ) ).getTest( 0, 0, 0 ) );
+	}
+	
+	@Test( expected = IOException.class )
+	public void testCorruptIndex() throws IOException {
+		DataSplits.read( TestArffReader.write( "not an index" ), "md5" );
+	}
+	
+	private static void assertSplits( DataSplits splits ) {
+		assertEquals( 2, splits.numRepeats() );
+		assertEquals( 2, splits.numFolds() );
+		assertEquals( 1, splits.numSamples() );
+		assertArrayEquals( new String[] { DataSplits.TRAIN, DataSplits.TEST }, splits.getTypes() );
+		assertArrayEquals( new int[] { 0, 1 }, splits.getTest( 0, 0, 0 ) );
+		assertArrayEquals( new int[] { 2, 3 }, splits.getTrain( 0, 0, 0 ) );
+		assertArrayEquals( new int[] { 2, 3 }, splits.getTest( 0, 1, 0 ) );
+		assertArrayEquals( new int[] { 0, 1 }, splits.getTrain( 0, 1, 0 ) );
+		assertArrayEquals( new int[] { 0, 2 }, splits.getTest( 1, 0, 0 ) );
+		assertArrayEquals( new int[] { 1, 3 }, splits.get( 1, 0, 0, DataSplits.TRAIN ) );
+		assertArrayEquals( new int[] { 1, 3 }, splits.getTest( 1, 1, 0 ) );
+		assertArrayEquals( new int[] { 0, 2 }, splits.getTrain( 1, 1, 0 ) );
+	}
+}
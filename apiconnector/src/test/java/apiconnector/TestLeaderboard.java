@@ -0,0 +1,135 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.openml.apiconnector.models.EvaluationTable;
+import org.openml.apiconnector.models.Leaderboard;
+import org.openml.apiconnector.xml.TaskEvaluations;
+import org.openml.apiconnector.xstream.XstreamXmlMapping;
+
+public class TestLeaderboard {
+
+	private static final String MEASURE = "predictive_accuracy";
+	private static final double DELTA = 1e-12;
+	
+	@Test
+	public void testTopRunsAndTiedRanks() {
+		Leaderboard leaderboard = new Leaderboard( MEASURE, 2, true );
+		leaderboard.add( table( 1, 
+			"1,10,0.8", "2,10,0.9", "3,20,0.9", "4,30,0.7", "5,20,0.6", "9,40,?" ) );
+		
+		// bounded to k, best first; the older run wins the tie
+		assertEquals( Arrays.asList( 2, 3 ), runs( leaderboard.getTopRuns( 1 ) ) );
+		assertEquals( 0.9, leaderboard.getTopRuns( 1 ).get( 1 ).getValue(), DELTA );
+		assertEquals( Arrays.asList( 2, 3 ), runs( leaderboard.getTopImplementations( 1 ) ) );
+		
+		// implementations 10 and 20 share the first two positions, 40 has no value
+		Map<Integer, Double> ranks = leaderboard.getAverageRanks();
+		assertEquals( Arrays.asList( 10, 20, 30 ), new ArrayList<Integer>( ranks.keySet() ) );
+		assertEquals( 1.5, ranks.get( 10 ), DELTA );
+		assertEquals( 1.5, ranks.get( 20 ), DELTA );
+		assertEquals( 3.0, ranks.get( 30 ), DELTA );
+		assertTrue( leaderboard.getTopRuns( 2 ).isEmpty() );
+	}
+	
+	@Test
+	public void testLowerIsBetter() {
+		Leaderboard leaderboard = new Leaderboard( "mean_absolute_error", 3, false );
+		leaderboard.add( table( 1, "1,10,0.3", "2,20,0.1", "3,30,0.2" ) );
+		assertEquals( Arrays.asList( 2, 3, 1 ), runs( leaderboard.getTopRuns( 1 ) ) );
+		assertEquals( Arrays.asList( 20, 30, 10 ), new ArrayList<Integer>( leaderboard.getAverageRanks().keySet() ) );
+	}
+	
+	@Test
+	public void testReAddingTaskReplacesRanks() {
+		Leaderboard leaderboard = new Leaderboard( MEASURE, 2, true );
+		leaderboard.add( table( 1, "1,10,0.8", "2,10,0.9", "3,20,0.9", "4,30,0.7" ) );
+		leaderboard.add( table( 2, "6,30,0.95", "7,10,0.5" ) );
+		Map<Integer, Double> ranks = leaderboard.getAverageRanks();
+		assertEquals( 1.75, ranks.get( 10 ), DELTA );
+		assertEquals( 1.5, ranks.get( 20 ), DELTA );
+		assertEquals( 2.0, ranks.get( 30 ), DELTA );
+		
+		// implementation 20 now wins task 2, and 10 and 30 no longer ran on it
+		leaderboard.add( table( 2, "8,20,0.4" ) );
+		ranks = leaderboard.getAverageRanks();
+		assertEquals( Arrays.asList( 20, 10, 30 ), new ArrayList<Integer>( ranks.keySet() ) );
+		assertEquals( 1.25, ranks.get( 20 ), DELTA );
+		assertEquals( 1.5, ranks.get( 10 ), DELTA );
+		assertEquals( 3.0, ranks.get( 30 ), DELTA );
+		assertEquals( Arrays.asList( 8 ), runs( leaderboard.getTopRuns( 2 ) ) );
+		assertEquals( Arrays.asList( 1, 2 ), leaderboard.getTasks() );
+		
+		// an implementation that is on no task anymore disappears
+		leaderboard.add( table( 1, "3,20,0.9" ) );
+		assertEquals( Arrays.asList( 20 ), new ArrayList<Integer>( leaderboard.getAverageRanks().keySet() ) );
+	}
+	
+	@Test
+	public void testIntervalEvaluationsAreNotRanked() {
+		Leaderboard leaderboard = new Leaderboard( MEASURE, 2, true );
+		leaderboard.add( table( 3, 
+			"1,10,0.6", "1,10,0.99,0,100", "1,10,0.98,100,200", "2,20,0.7", "2,20,0.1,0,100" ) );
+		List<Leaderboard.Entry> top = leaderboard.getTopRuns( 3 );
+		assertEquals( Arrays.asList( 2, 1 ), runs( top ) );
+		assertEquals( 0.6, top.get( 1 ).getValue(), DELTA );
+		assertEquals( 1.0, leaderboard.getAverageRanks().get( 20 ), DELTA );
+		assertEquals( 2.0, leaderboard.getAverageRanks().get( 10 ), DELTA );
+	}
+	
+	private static List<Integer> runs( List<Leaderboard.Entry> entries ) {
+		List<Integer> result = new ArrayList<Integer>();
+		for( Leaderboard.Entry entry : entries ) {
+			result.add( entry.getRun_id() );
+		}
+		return result;
+	}
+	
+	/**
+	 * @param rows - Per evaluation "run_id,implementation_id,value" and 
+	 * optionally ",interval_start,interval_end"
+	 */
+	static EvaluationTable table( int task_id, String... rows ) {
+		StringBuilder xml = new StringBuilder();
+		xml.append( "<oml:task_evaluations xmlns:oml=\"http://openml.org/openml\">" );
+		xml.append( "<oml:task_id>" + task_id + "</oml:task_id>" );
+		for( String row : rows ) {
+			String[] fields = row.split( "," );
+			xml.append( fields.length > 3 ? "<oml:evaluation interval_start=\"" + fields[3] + "\" interval_end=\"" + fields[4] + "\">" : "<oml:evaluation>" );
+			xml.append( "<oml:run_id>" + fields[0] + "</oml:run_id>" );
+			xml.append( "<oml:setup_id>" + fields[0] + "</oml:setup_id>" );
+			xml.append( "<oml:implementation_id>" + fields[1] + "</oml:implementation_id>" );
+			xml.append( "<oml:implementation>weka.Classifier" + fields[1] + "(1)</oml:implementation>" );
+			xml.append( "<oml:measure name=\"" + MEASURE + "\">" + fields[2] + "</oml:measure>" );
+			xml.append( "<oml:measure name=\"mean_absolute_error\">" + fields[2] + "</oml:measure>" );
+			xml.append( "</oml:evaluation>" );
+		}
+		xml.append( "</oml:task_evaluations>" );
+		return new EvaluationTable( (TaskEvaluations) XstreamXmlMapping.getInstance().fromXML( xml.toString() ) );
+	}
+}
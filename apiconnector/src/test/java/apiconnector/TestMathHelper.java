@@ -0,0 +1,139 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.Test;
+import org.openml.apiconnector.algorithms.MathHelper;
+
+public class TestMathHelper {
+
+	private static final double DELTA = 1e-9;
+	
+	@Test
+	public void testSumIsCompensated() {
+		double[] values = new double[100001];
+		values[0] = 1e16;
+		BigDecimal exact = new BigDecimal( values[0] );
+		for( int i = 1; i < values.length; ++i ) {
+			values[i] = 1.0;
+			exact = exact.add( BigDecimal.ONE );
+		}
+		// naive summation loses every 1.0 added to 1e16
+		assertEquals( exact.doubleValue(), MathHelper.sum( values ), 0.0 );
+	}
+	
+	@Test
+	public void testMatchesDoubleArrayHelpers() {
+		Random random = new Random( 3 );
+		double[] values = new double[1000];
+		Double[] boxed = new Double[values.length];
+		for( int i = 0; i < values.length; ++i ) {
+			values[i] = random.nextDouble() * 100 - 50;
+			boxed[i] = values[i];
+		}
+		assertEquals( MathHelper.sum( boxed ), MathHelper.sum( values ), DELTA );
+		assertEquals( MathHelper.mean( boxed ), MathHelper.mean( values ), DELTA );
+		assertEquals( MathHelper.standard_deviation( boxed, true ), MathHelper.standard_deviation( values, true ), DELTA );
+		assertEquals( MathHelper.standard_deviation( boxed, false ), MathHelper.standard_deviation( values, false ), DELTA );
+	}
+	
+	@Test
+	public void testVarianceOfShiftedValues() {
+		double[] values = { 1e9 + 4, 1e9 + 7, 1e9 + 13, 1e9 + 16 };
+		float[] floats = { 4, 7, 13, 16 };
+		assertEquals( 30.0, MathHelper.variance( values, true ), DELTA );
+		assertEquals( 22.5, MathHelper.variance( values, false ), DELTA );
+		assertEquals( 30.0, MathHelper.variance( floats, true ), DELTA );
+		assertEquals( 1e9 + 10, MathHelper.mean( values ), DELTA );
+		assertEquals( 1e9 + 4, MathHelper.min( values ), 0.0 );
+		assertEquals( 16.0, MathHelper.max( floats ), 0.0 );
+	}
+	
+	@Test
+	public void testQuantiles() {
+		double[] values = { 7, 1, 3, 5 };
+		assertArrayEquals( new double[] { 1, 2.5, 4, 5.5, 7 }, MathHelper.quantiles( values, new double[] { 0, 0.25, 0.5, 0.75, 1 } ), DELTA );
+		assertEquals( 4.0, MathHelper.quantile( new float[] { 7, 1, 3, 5 }, 0.5 ), DELTA );
+		// input is not modified
+		assertArrayEquals( new double[] { 7, 1, 3, 5 }, values, 0.0 );
+		assertTrue( Double.isNaN( MathHelper.quantile( new double[0], 0.5 ) ) );
+	}
+	
+	@Test
+	public void testArgmax() {
+		assertEquals( 2, MathHelper.argmax( new double[] { -3, -2, -1, -1 } ) );
+		assertEquals( 1, MathHelper.argmax( new double[] { Double.NaN, 0.5, Double.NaN } ) );
+		assertEquals( -1, MathHelper.argmax( new double[] { Double.NaN } ) );
+		assertEquals( -1, MathHelper.argmax( new double[] { -3, -2 }, true ) );
+		assertEquals( 1, MathHelper.argmax( new double[] { -3, 2 }, true ) );
+	}
+	
+	/**
+	 * Reductions over long arrays are split in chunks (in parallel when more 
+	 * than one processor is available); the result should not depend on it.
+	 */
+	@Test
+	public void testChunkedEqualsSequential() {
+		Random random = new Random( 11 );
+		double[] values = new double[10000];
+		for( int i = 0; i < values.length; ++i ) {
+			values[i] = random.nextGaussian();
+		}
+		values[6789] = 100;
+		
+		double sum = MathHelper.sum( values );
+		double variance = MathHelper.variance( values, true );
+		double min = MathHelper.min( values );
+		int argmax = MathHelper.argmax( values );
+		
+		int threshold = MathHelper.PARALLEL_THRESHOLD;
+		try {
+			MathHelper.PARALLEL_THRESHOLD = 64;
+			assertEquals( sum, MathHelper.sum( values ), DELTA );
+			assertEquals( variance, MathHelper.variance( values, true ), DELTA );
+			assertEquals( min, MathHelper.min( values ), 0.0 );
+			assertEquals( 6789, argmax );
+			assertEquals( argmax, MathHelper.argmax( values ) );
+		} finally {
+			MathHelper.PARALLEL_THRESHOLD = threshold;
+		}
+	}
+	
+	@Test
+	public void testSmallThresholds() {
+		int threshold = MathHelper.PARALLEL_THRESHOLD;
+		try {
+			for( int value : new int[] { 0, 1, 2 } ) {
+				MathHelper.PARALLEL_THRESHOLD = value;
+				assertEquals( 6.0, MathHelper.sum( new double[] { 1, 2, 3 } ), 0.0 );
+				assertEquals( 2, MathHelper.argmax( new double[] { 1, 2, 3 } ) );
+				assertEquals( 0.0, MathHelper.sum( new double[0] ), 0.0 );
+				assertEquals( -1, MathHelper.argmax( new double[0] ) );
+			}
+		} finally {
+			MathHelper.PARALLEL_THRESHOLD = threshold;
+		}
+	}
+}
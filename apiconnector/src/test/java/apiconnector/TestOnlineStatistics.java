@@ -0,0 +1,111 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.openml.apiconnector.algorithms.MathHelper;
+import org.openml.apiconnector.algorithms.OnlineStatistics;
+import org.openml.apiconnector.algorithms.StreamingEvaluator;
+import org.openml.apiconnector.models.MetricCollector;
+
+public class TestOnlineStatistics {
+
+	private static final double DELTA = 1e-9;
+	
+	@Test
+	public void testKnownValues() {
+		OnlineStatistics statistics = new OnlineStatistics();
+		assertTrue( Double.isNaN( statistics.getMean() ) );
+		assertTrue( Double.isNaN( statistics.getVariance( true ) ) );
+		for( double value : new double[] { 2, 4, 4, 4, 5, 5, 7, 9 } ) {
+			statistics.add( value );
+		}
+		assertEquals( 8, statistics.count() );
+		assertEquals( 5.0, statistics.getMean(), DELTA );
+		assertEquals( 4.0, statistics.getVariance( false ), DELTA );
+		assertEquals( 2.0, statistics.getStandardDeviation( false ), DELTA );
+		assertEquals( 32.0 / 7, statistics.getVariance( true ), DELTA );
+		assertEquals( 2.0, statistics.getMin(), 0.0 );
+		assertEquals( 9.0, statistics.getMax(), 0.0 );
+		assertEquals( 7.0, statistics.get( 6 ), 0.0 );
+	}
+	
+	@Test
+	public void testMatchesDoubleArrayHelpers() {
+		Random random = new Random( 42 );
+		OnlineStatistics statistics = new OnlineStatistics();
+		Double[] values = new Double[1000];
+		for( int i = 0; i < values.length; ++i ) {
+			values[i] = random.nextGaussian() * 3 + 10;
+			statistics.add( values[i] );
+		}
+		assertEquals( MathHelper.mean( values ), statistics.getMean(), DELTA );
+		assertEquals( MathHelper.standard_deviation( values, true ), statistics.getStandardDeviation( true ), DELTA );
+		assertEquals( MathHelper.standard_deviation( values, false ), statistics.getStandardDeviation( false ), DELTA );
+	}
+	
+	@Test
+	public void testMergedEqualsSequential() {
+		Random random = new Random( 7 );
+		OnlineStatistics sequential = new OnlineStatistics();
+		OnlineStatistics merged = new OnlineStatistics();
+		// parts of different sizes, including an empty one
+		int[] sizes = { 3, 0, 1, 50, 17, 200 };
+		for( int size : sizes ) {
+			OnlineStatistics part = new OnlineStatistics();
+			for( int i = 0; i < size; ++i ) {
+				double value = 1e6 + random.nextDouble();
+				sequential.add( value );
+				part.add( value );
+			}
+			merged.merge( part );
+		}
+		assertEquals( sequential.count(), merged.count() );
+		assertEquals( sequential.getMean(), merged.getMean(), DELTA );
+		assertEquals( sequential.getVariance( true ), merged.getVariance( true ), DELTA );
+		assertEquals( sequential.getMin(), merged.getMin(), 0.0 );
+		assertEquals( sequential.getMax(), merged.getMax(), 0.0 );
+		assertTrue( Arrays.equals( sequential.getValues(), merged.getValues() ) );
+	}
+	
+	@Test
+	public void testMetricCollector() {
+		MetricCollector first = new MetricCollector();
+		first.add( StreamingEvaluator.PREDICTIVE_ACCURACY, 0.5 );
+		first.add( StreamingEvaluator.PREDICTIVE_ACCURACY, 0.7 );
+		MetricCollector second = new MetricCollector();
+		second.add( StreamingEvaluator.PREDICTIVE_ACCURACY, 0.9 );
+		second.add( StreamingEvaluator.KAPPA, 0.3 );
+		first.merge( second );
+		
+		assertEquals( Arrays.asList( 0.5, 0.7, 0.9 ), first.getScores( StreamingEvaluator.PREDICTIVE_ACCURACY ) );
+		assertEquals( 0.7, first.getMean( StreamingEvaluator.PREDICTIVE_ACCURACY ), DELTA );
+		assertEquals( 0.2, first.getStandardDeviation( StreamingEvaluator.PREDICTIVE_ACCURACY, true ), DELTA );
+		assertEquals( 0.3, first.getMean( StreamingEvaluator.KAPPA ), DELTA );
+		assertEquals( 2, first.getMetrics().size() );
+		assertTrue( Double.isNaN( first.getMean( StreamingEvaluator.AREA_UNDER_ROC_CURVE ) ) );
+		assertTrue( first.getScores( StreamingEvaluator.AREA_UNDER_ROC_CURVE ).isEmpty() );
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.openml.apiconnector.models.MetaFeatureMatrix;
+import org.openml.apiconnector.models.QualityIndex;
+import org.openml.apiconnector.xml.Data;
+import org.openml.apiconnector.xml.DataQuality;
+import org.openml.apiconnector.xstream.XstreamXmlMapping;
+
+public class TestQualityIndex {
+
+	private static final String INSTANCES = "NumberOfInstances";
+	private static final String FEATURES = "NumberOfFeatures";
+	
+	/**
+	 * Data set 3 has no number of features, data set 5 no (numeric) number of instances.
+	 */
+	private static MetaFeatureMatrix matrix() {
+		return MetaFeatureMatrix.build( data( 
+			"1,active,100,10", 
+			"2,active,1000,5", 
+			"3,deactivated,1000,", 
+			"4,active,5000,500", 
+			"5,active,unknown,20", 
+			"6,in_preparation,500,50" ) );
+	}
+	
+	@Test
+	public void testBounds() {
+		QualityIndex index = new QualityIndex( matrix() );
+		assertArrayEquals( new int[] { 1, 2, 3, 6 }, index.query().between( INSTANCES, 100, 1000 ).getDids() );
+		assertArrayEquals( new int[] { 6 }, index.query().range( INSTANCES, 100, false, 1000, false ).getDids() );
+		assertArrayEquals( new int[] { 1, 6 }, index.query().lessThan( INSTANCES, 1000 ).getDids() );
+		assertArrayEquals( new int[] { 1, 2, 3, 6 }, index.query().atMost( INSTANCES, 1000 ).getDids() );
+		assertArrayEquals( new int[] { 4 }, index.query().greaterThan( INSTANCES, 1000 ).getDids() );
+		assertArrayEquals( new int[] { 2, 3, 4 }, index.query().atLeast( INSTANCES, 1000 ).getDids() );
+		assertArrayEquals( new int[] { 2, 3 }, index.query().equalTo( INSTANCES, 1000 ).getDids() );
+		assertEquals( 0, index.query().between( INSTANCES, 1001, 4999 ).count() );
+		assertEquals( 0, index.query().atLeast( "NoSuchQuality", 0 ).count() );
+	}
+	
+	@Test
+	public void testMissingValuesAreExcluded() {
+		QualityIndex index = new QualityIndex( matrix() );
+		assertArrayEquals( new int[] { 1, 2, 3, 4, 6 }, index.query().atLeast( INSTANCES, Double.NEGATIVE_INFINITY ).getDids() );
+		assertArrayEquals( new int[] { 1, 2, 4, 5, 6 }, index.query().lessThan( FEATURES, Double.POSITIVE_INFINITY ).getDids() );
+		// missing values are not returned by top either
+		assertArrayEquals( new int[] { 4, 6, 5, 1, 2 }, index.query().top( FEATURES, 10, true ) );
+		assertArrayEquals( new int[] { 2, 1, 5 }, index.query().top( FEATURES, 3, false ) );
+		assertEquals( 5, index.query().top( INSTANCES, 10, false ).length );
+	}
+	
+	@Test
+	public void testStatusIntersection() {
+		QualityIndex index = new QualityIndex( matrix() );
+		assertArrayEquals( new int[] { 1, 2, 4, 5 }, index.query().status( "active" ).getDids() );
+		assertArrayEquals( new int[] { 1, 2 }, index.query().status( "active" ).between( INSTANCES, 100, 1000 ).getDids() );
+		assertArrayEquals( new int[] { 2 }, index.query().status( "active" ).atLeast( INSTANCES, 1000 ).lessThan( FEATURES, 500 ).getDids() );
+		assertArrayEquals( new int[] { 4, 2 }, index.query().status( "active" ).top( INSTANCES, 2, true ) );
+		assertEquals( 0, index.query().status( "no_such_status" ).count() );
+		// the returned sets are copies
+		index.status( "active" ).clear();
+		assertEquals( 4, index.query().status( "active" ).count() );
+	}
+	
+	@Test
+	public void testRebuildAfterUpdate() {
+		MetaFeatureMatrix matrix = matrix();
+		QualityIndex index = new QualityIndex( matrix );
+		assertArrayEquals( new int[] { 4 }, index.query().atLeast( INSTANCES, 2000 ).getDids() );
+		
+		// a new data set, a changed data set and a new quality
+		matrix.update( new DataQuality( 7, new DataQuality.Quality[] { 
+			new DataQuality.Quality( INSTANCES, "2000" ), new DataQuality.Quality( "NumberOfClasses", "2" ) } ), "active" );
+		matrix.update( new DataQuality( 1, new DataQuality.Quality[] { new DataQuality.Quality( INSTANCES, "3000" ) } ), "deactivated" );
+		assertArrayEquals( new int[] { 1, 4, 7 }, index.query().atLeast( INSTANCES, 2000 ).getDids() );
+		assertArrayEquals( new int[] { 7 }, index.query().equalTo( "NumberOfClasses", 2 ).getDids() );
+		assertArrayEquals( new int[] { 2, 4, 5, 7 }, index.query().status( "active" ).getDids() );
+		// refreshed rows start empty
+		assertArrayEquals( new int[] { 2, 4, 5, 6 }, index.query().atLeast( FEATURES, 0 ).getDids() );
+		
+		matrix.update( data( "4,active,50,500" ) );
+		assertArrayEquals( new int[] { 1, 7 }, index.query().atLeast( INSTANCES, 2000 ).getDids() );
+	}
+	
+	/**
+	 * @param rows - Per data set "did,status,NumberOfInstances,NumberOfFeatures", 
+	 * an empty value is left out
+	 */
+	static Data data( String... rows ) {
+		StringBuilder xml = new StringBuilder( "<oml:data xmlns:oml=\"http://openml.org/openml\">" );
+		for( String row : rows ) {
+			String[] fields = row.split( ",", -1 );
+			xml.append( "<oml:dataset><oml:did>" + fields[0] + "</oml:did><oml:name>data" + fields[0] + "</oml:name>" );
+			xml.append( "<oml:status>" + fields[1] + "</oml:status>" );
+			if( fields[2].length() > 0 ) {
+				xml.append( "<oml:quality name=\"" + INSTANCES + "\">" + fields[2] + "</oml:quality>" );
+			}
+			if( fields[3].length() > 0 ) {
+				xml.append( "<oml:quality name=\"" + FEATURES + "\">" + fields[3] + "</oml:quality>" );
+			}
+			xml.append( "</oml:dataset>" );
+		}
+		xml.append( "</oml:data>" );
+		return (Data) XstreamXmlMapping.getInstance().fromXML( xml.toString() );
+	}
+}
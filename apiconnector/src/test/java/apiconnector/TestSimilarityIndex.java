@@ -0,0 +1,122 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.openml.apiconnector.models.MetaFeatureMatrix;
+import org.openml.apiconnector.models.SimilarityIndex;
+import org.openml.apiconnector.models.SimilarityIndex.Distance;
+import org.openml.apiconnector.models.SimilarityIndex.Neighbour;
+import org.openml.apiconnector.xml.DataQuality;
+
+public class TestSimilarityIndex {
+
+	private static final String[] FEATURES = { "NumberOfInstances", "NumberOfFeatures" };
+	private static final double DELTA = 1e-12;
+	
+	/**
+	 * The features range over [0, 10] and [0, 100]. Data set 5 misses the 
+	 * second feature and data set 6 misses both.
+	 */
+	private static SimilarityIndex index( Distance distance ) {
+		MetaFeatureMatrix matrix = MetaFeatureMatrix.build( TestQualityIndex.data( 
+			"1,active,0,0", "2,active,1,10", "3,active,5,50", "4,active,10,100", "5,active,2,", "6,active,," ) );
+		return new SimilarityIndex( matrix, FEATURES, distance );
+	}
+	
+	@Test
+	public void testNearestOrder() {
+		SimilarityIndex index = index( Distance.EUCLIDEAN );
+		assertEquals( 6, index.size() );
+		List<Neighbour> neighbours = index.nearest( 1, 3 );
+		assertEquals( Arrays.asList( 2, 5, 3 ), dids( neighbours ) );
+		assertEquals( Math.sqrt( 0.02 ), neighbours.get( 0 ).getDistance(), DELTA );
+		assertEquals( Math.sqrt( 0.5 ), neighbours.get( 2 ).getDistance(), DELTA );
+		
+		assertEquals( Arrays.asList( 2, 5, 3 ), dids( index( Distance.MANHATTAN ).nearest( 1, 3 ) ) );
+		assertEquals( 1.0, index( Distance.MANHATTAN ).nearest( 1, 3 ).get( 2 ).getDistance(), DELTA );
+		assertEquals( 0.5, index( Distance.CHEBYSHEV ).nearest( 1, 3 ).get( 2 ).getDistance(), DELTA );
+	}
+	
+	/**
+	 * A distance over fewer features is scaled up to all features, so that
+	 * it is comparable to the others.
+	 */
+	@Test
+	public void testMissingFeatureRescaling() {
+		List<Neighbour> neighbours = index( Distance.EUCLIDEAN ).nearest( 1, 2 );
+		assertEquals( 5, neighbours.get( 1 ).getDid() );
+		assertEquals( Math.sqrt( 0.04 * 2 ), neighbours.get( 1 ).getDistance(), DELTA );
+		assertEquals( 0.2 * 2, index( Distance.MANHATTAN ).nearest( 1, 2 ).get( 1 ).getDistance(), DELTA );
+		assertEquals( 0.2, index( Distance.CHEBYSHEV ).nearest( 1, 2 ).get( 1 ).getDistance(), DELTA );
+	}
+	
+	@Test
+	public void testQueryDataSetIsExcluded() {
+		SimilarityIndex index = index( Distance.EUCLIDEAN );
+		// data set 6 shares no features with any other data set
+		assertEquals( Arrays.asList( 2, 5, 3, 4 ), dids( index.nearest( 1, 10 ) ) );
+		assertTrue( index.nearest( 6, 10 ).isEmpty() );
+		// a raw vector is not an indexed data set, so data set 1 itself is returned
+		assertEquals( Arrays.asList( 1, 2 ), dids( index.nearest( new double[] { 0, 0 }, 2 ) ) );
+		assertEquals( 0.0, index.nearest( new double[] { 0, 0 }, 1 ).get( 0 ).getDistance(), 0.0 );
+	}
+	
+	@Test
+	public void testReplaceVector() {
+		SimilarityIndex index = index( Distance.EUCLIDEAN );
+		index.add( 2, new double[] { 9, 90 } );
+		assertEquals( 6, index.size() );
+		assertEquals( Arrays.asList( 5, 3, 2 ), dids( index.nearest( 1, 3 ) ) );
+		
+		// qualities on an interval and non-numeric values are skipped
+		index.add( new DataQuality( 7, new DataQuality.Quality[] { 
+			new DataQuality.Quality( FEATURES[0], "0" ),
+			new DataQuality.Quality( FEATURES[1], "100", 0, 100 ),
+			new DataQuality.Quality( FEATURES[1], "unknown" ) } ) );
+		assertEquals( 7, index.size() );
+		assertEquals( 7, index.nearest( 1, 1 ).get( 0 ).getDid() );
+		assertEquals( 0.0, index.nearest( 1, 1 ).get( 0 ).getDistance(), 0.0 );
+	}
+	
+	@Test( expected = IllegalArgumentException.class )
+	public void testUnknownDataSet() {
+		index( Distance.EUCLIDEAN ).nearest( 42, 1 );
+	}
+	
+	@Test( expected = IllegalArgumentException.class )
+	public void testWrongNumberOfFeatures() {
+		index( Distance.EUCLIDEAN ).add( 7, new double[] { 1 } );
+	}
+	
+	private static List<Integer> dids( List<Neighbour> neighbours ) {
+		List<Integer> result = new ArrayList<Integer>();
+		for( Neighbour neighbour : neighbours ) {
+			result.add( neighbour.getDid() );
+		}
+		return result;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ *  OpenmlApiConnector - Java integration of the OpenML Web API
+ *  Copyright (C) 2014 
+ *  @author Jan N. van Rijn (j.n.van.rijn@liacs.leidenuniv.nl)
+ *  
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *  
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *  
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *  
+ */
+package apiconnector;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.openml.apiconnector.algorithms.MathHelper;
+import org.openml.apiconnector.algorithms.StreamingEvaluator;
+import org.openml.apiconnector.models.Metric;
+import org.openml.apiconnector.models.MetricCollector;
+import org.openml.apiconnector.models.MetricScore;
+
+public class TestStreamingEvaluator {
+
+	private static final double DELTA = 1e-12;
+	
+	/**
+	 * Positives score 0.75, 0.5 and 0.25, negatives 0.5 and 0.125: of the six
+	 * pairs, 4 are ordered correctly and 1 is a tie, so the AUROC is 4.5 / 6.
+	 * Confidences are on bin boundaries, so the histogram is exact.
+	 */
+	@Test
+	public void testAreaUnderRocCurve() {
+		StreamingEvaluator evaluator = new StreamingEvaluator( 2 );
+		double[] positives = { 0.75, 0.5, 0.25 };
+		double[] negatives = { 0.5, 0.125 };
+		for( double p : positives ) {
+			evaluator.add( 0, 0, 0, 1, new double[] { 1 - p, p } );
+		}
+		for( double p : negatives ) {
+			evaluator.add( 0, 0, 0, 0, new double[] { 1 - p, p } );
+		}
+		Map<Metric, MetricScore> scores = evaluator.getGlobalScores();
+		// both classes have the same (mirrored) curve, so the weighted average is the same
+		assertEquals( 0.75, scores.get( StreamingEvaluator.AREA_UNDER_ROC_CURVE ).getScore(), DELTA );
+		assertEquals( "[0.75,0.75]", scores.get( StreamingEvaluator.AREA_UNDER_ROC_CURVE ).getArrayAsString( MathHelper.defaultDecimalFormat ) );
+	}
+	
+	/**
+	 * Confusion matrix (rows actual, columns predicted) 
+	 * [[5,1,0],[2,3,1],[0,1,7]]: accuracy 15 / 20, chance agreement 
+	 * (6*7 + 6*5 + 8*8) / 400 = 0.34, kappa (0.75 - 0.34) / 0.66.
+	 */
+	@Test
+	public void testKappaAndConfusionMatrix() {
+		int[][] confusion = { { 5, 1, 0 }, { 2, 3, 1 }, { 0, 1, 7 } };
+		StreamingEvaluator evaluator = new StreamingEvaluator( 3 );
+		for( int actual = 0; actual < 3; ++actual ) {
+			for( int predicted = 0; predicted < 3; ++predicted ) {
+				for( int i = 0; i < confusion[actual][predicted]; ++i ) {
+					double[] confidences = new double[3];
+					confidences[predicted] = 1.0;
+					evaluator.add( 0, 0, 0, actual, confidences );
+				}
+			}
+		}
+		Map<Metric, MetricScore> scores = evaluator.getGlobalScores();
+		assertEquals( 0.75, scores.get( StreamingEvaluator.PREDICTIVE_ACCURACY ).getScore(), DELTA );
+		assertEquals( 0.41 / 0.66, scores.get( StreamingEvaluator.KAPPA ).getScore(), DELTA );
+		assertEquals( "[[5,1,0],[2,3,1],[0,1,7]]", scores.get( StreamingEvaluator.CONFUSION_MATRIX ).getArrayAsString( MathHelper.defaultDecimalFormat ) );
+		// crisp predictions: every wrong prediction has error 1 on two of the three classes
+		assertEquals( 5 * 2.0 / 3 / 20, scores.get( StreamingEvaluator.MEAN_ABSOLUTE_ERROR ).getScore(), DELTA );
+		assertEquals( Math.sqrt( 5 * 2.0 / 3 / 20 ), scores.get( StreamingEvaluator.ROOT_MEAN_SQUARED_ERROR ).getScore(), DELTA );
+		assertEquals( 20, scores.get( StreamingEvaluator.KAPPA ).getNrOfInstances() );
+	}
+	
+	@Test
+	public void testRegression() {
+		StreamingEvaluator evaluator = new StreamingEvaluator();
+		evaluator.add( 0, 0, 0, 1.0, 2.0 );
+		evaluator.add( 0, 0, 0, 4.0, 2.0 );
+		evaluator.add( 0, 1, 0, 3.0, 0.0 );
+		evaluator.add( 0, 1, 0, Double.NaN, 0.0 ); // missing, skipped
+		
+		Map<Metric, MetricScore> global = evaluator.getGlobalScores();
+		assertEquals( 2.0, global.get( StreamingEvaluator.MEAN_ABSOLUTE_ERROR ).getScore(), DELTA );
+		assertEquals( Math.sqrt( 14.0 / 3 ), global.get( StreamingEvaluator.ROOT_MEAN_SQUARED_ERROR ).getScore(), DELTA );
+		assertEquals( 1.5, evaluator.getScores( 0, 0, 0 ).get( StreamingEvaluator.MEAN_ABSOLUTE_ERROR ).getScore(), DELTA );
+		assertEquals( 3.0, evaluator.getScores( 0, 1, 0 ).get( StreamingEvaluator.MEAN_ABSOLUTE_ERROR ).getScore(), DELTA );
+		assertNull( evaluator.getScores( 0, 2, 0 ) );
+		assertEquals( 2, evaluator.getFolds().size() );
+	}
+	
+	/**
+	 * The per fold scores in the collector should give the same mean and 
+	 * standard deviation as the Double[] helpers that were used before.
+	 */
+	@Test
+	public void testCollectMatchesDoubleArrayHelpers() {
+		StreamingEvaluator evaluator = new StreamingEvaluator( 2 );
+		java.util.Random random = new java.util.Random( 1 );
+		for( int fold = 0; fold < 10; ++fold ) {
+			for( int i = 0; i < 50; ++i ) {
+				double p = random.nextInt( 9 ) / 8.0;
+				evaluator.add( 0, fold, 0, random.nextInt( 2 ), new double[] { 1 - p, p } );
+			}
+		}
+		MetricCollector collector = evaluator.collect();
+		List<Double> accuracies = new ArrayList<Double>();
+		for( int[] fold : evaluator.getFolds() ) {
+			accuracies.add( evaluator.getScores( fold[0], fold[1], fold[2] ).get( StreamingEvaluator.PREDICTIVE_ACCURACY ).getScore() );
+		}
+		Double[] scores = accuracies.toArray( new Double[accuracies.size()] );
+		assertEquals( accuracies, collector.getScores( StreamingEvaluator.PREDICTIVE_ACCURACY ) );
+		assertEquals( MathHelper.mean( scores ), collector.getMean( StreamingEvaluator.PREDICTIVE_ACCURACY ), DELTA );
+		assertEquals( MathHelper.standard_deviation( scores, true ), collector.getStandardDeviation( StreamingEvaluator.PREDICTIVE_ACCURACY, true ), DELTA );
+	}
+	
+	@Test( expected = IllegalStateException.class )
+	public void testRegressionOnClassificationEvaluator() {
+		new StreamingEvaluator( 2 ).add( 0, 0, 0, 1.0, 2.0 );
+	}
+}